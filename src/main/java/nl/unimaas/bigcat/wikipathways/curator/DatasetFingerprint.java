@@ -0,0 +1,92 @@
+/* Copyright (C) 2026  Egon Willighagen <egon.willighagen@gmail.com>
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   - Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package nl.unimaas.bigcat.wikipathways.curator;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// changes when any of the input files is added, removed, or changed; by default
+// only paths, sizes, and modification times are used, optionally the content is hashed too
+public class DatasetFingerprint {
+
+	public static String of(List<File> files, boolean hashContent) throws IOException {
+		List<File> sorted = new ArrayList<File>(files);
+		Collections.sort(sorted);
+		MessageDigest digest = sha256();
+		for (File file : sorted) {
+			digest.update(fileFingerprint(file, hashContent).getBytes(StandardCharsets.UTF_8));
+			digest.update((byte)'\n');
+		}
+		return toHex(digest.digest());
+	}
+
+	public static String fileFingerprint(File file, boolean hashContent) throws IOException {
+		StringBuilder fingerprint = new StringBuilder();
+		fingerprint.append(file.getAbsolutePath())
+		    .append('\t').append(file.length())
+		    .append('\t').append(file.lastModified());
+		if (hashContent) fingerprint.append('\t').append(contentHash(file));
+		return fingerprint.toString();
+	}
+
+	public static String contentHash(File file) throws IOException {
+		MessageDigest digest = sha256();
+		try (InputStream in = new FileInputStream(file)) {
+			byte[] buffer = new byte[65536];
+			int read;
+			while ((read = in.read(buffer)) != -1) digest.update(buffer, 0, read);
+		}
+		return toHex(digest.digest());
+	}
+
+	public static String hash(String text) {
+		return toHex(sha256().digest(text.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException exception) {
+			throw new IllegalStateException("SHA-256 is not available", exception);
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder hex = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) hex.append(String.format("%02x", b));
+		return hex.toString();
+	}
+
+}
@@ -0,0 +1,78 @@
+/* Copyright (C) 2026  Egon Willighagen <egon.willighagen@gmail.com>
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   - Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package nl.unimaas.bigcat.wikipathways.curator;
+
+import org.apache.jena.query.ParameterizedSparqlString;
+
+// counted once via the helper, so it is cached like other results;
+// for endpoints the VoID description of their dataset is used when available
+public class DatasetStatistics {
+
+	private final SPARQLHelper helper;
+
+	private Long tripleCount = null;
+
+	DatasetStatistics(SPARQLHelper helper) {
+		this.helper = helper;
+	}
+
+	public synchronized long getTripleCount() throws Exception {
+		if (tripleCount == null) {
+			if (helper.getEndpoint() == null) {
+				tripleCount = helper.size(); // which may come from the disk cache
+			} else {
+				tripleCount = count(voidQuery("statistics/voidTripleCount.rq"));
+				if (tripleCount <= 0) tripleCount = count(query("statistics/tripleCount.rq"));
+			}
+		}
+		return tripleCount;
+	}
+
+	private static String query(String queryResource) throws Exception {
+		return ResourceHelper.resourceAsString(queryResource);
+	}
+
+	private String voidQuery(String queryResource) throws Exception {
+		ParameterizedSparqlString query = new ParameterizedSparqlString(query(queryResource));
+		query.setIri("endpoint", helper.getEndpoint());
+		return query.toString();
+	}
+
+	private long count(String query) throws Exception {
+		StringMatrix table = helper.sparql(query);
+		if (table == null || table.getRowCount() == 0) return 0;
+		String count = table.get(1, "count");
+		if (count == null || count.isEmpty()) return 0;
+		return Long.parseLong(count);
+	}
+
+	@Override
+	public String toString() {
+		return "DatasetStatistics[triples=" + (tripleCount == null ? "?" : tripleCount) + "]";
+	}
+
+}
@@ -0,0 +1,187 @@
+/* Copyright (C) 2026  Egon Willighagen <egon.willighagen@gmail.com>
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   - Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package nl.unimaas.bigcat.wikipathways.curator;
+
+import java.io.Closeable;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// limits concurrent requests and requests per second (token bucket), and retries
+// with exponential backoff and jitter when the endpoint is overloaded (HTTP 429, 502, 503)
+public class EndpointExecutor implements Closeable {
+
+	public static final double DEFAULT_QUERIES_PER_SECOND = 5.0;
+	public static final int DEFAULT_MAX_RETRIES = 5;
+	public static final long DEFAULT_INITIAL_BACKOFF = 500; // in milliseconds
+	public static final long MAX_BACKOFF = 60000; // in milliseconds
+
+	@SuppressWarnings("serial")
+	public static class RetryableException extends Exception {
+
+		private final int statusCode;
+		private final long retryAfter;
+
+		// retryAfter in milliseconds, or -1
+		public RetryableException(int statusCode, String message, long retryAfter) {
+			super(message);
+			this.statusCode = statusCode;
+			this.retryAfter = retryAfter;
+		}
+
+		public int getStatusCode() {
+			return this.statusCode;
+		}
+
+		public long getRetryAfter() {
+			return this.retryAfter;
+		}
+	}
+
+	public static boolean isRetryable(int statusCode) {
+		return statusCode == 429 || statusCode == 502 || statusCode == 503;
+	}
+
+	private final int maxConcurrentRequests;
+	private final Semaphore permits;
+	private final double requestsPerSecond;
+	private final int maxRetries;
+	private final long initialBackoff;
+
+	// token bucket state; the bucket holds at most maxConcurrentRequests tokens
+	private double tokens;
+	private long lastRefill = System.nanoTime();
+
+	private ExecutorService executorService = null;
+	private final AtomicLong retries = new AtomicLong();
+
+	// requestsPerSecond 0 means no limit; initialBackoff in milliseconds, doubled for each retry
+	public EndpointExecutor(int maxConcurrentRequests, double requestsPerSecond, int maxRetries, long initialBackoff) {
+		if (maxConcurrentRequests < 1) throw new IllegalArgumentException("At least one concurrent request is needed");
+		this.maxConcurrentRequests = maxConcurrentRequests;
+		this.permits = new Semaphore(maxConcurrentRequests, true);
+		this.requestsPerSecond = requestsPerSecond;
+		this.maxRetries = maxRetries;
+		this.initialBackoff = initialBackoff;
+		this.tokens = maxConcurrentRequests;
+	}
+
+	public static EndpointExecutor fromSystemProperties(int maxConcurrentRequests) {
+		double rate = DEFAULT_QUERIES_PER_SECOND;
+		String rateProperty = System.getProperty("SPARQLEP_RATE");
+		if (rateProperty != null && !rateProperty.trim().isEmpty()) rate = Double.parseDouble(rateProperty.trim());
+		int retries = DEFAULT_MAX_RETRIES;
+		String retriesProperty = System.getProperty("SPARQLEP_RETRIES");
+		if (retriesProperty != null && !retriesProperty.trim().isEmpty()) retries = Integer.parseInt(retriesProperty.trim());
+		return new EndpointExecutor(maxConcurrentRequests, rate, retries, DEFAULT_INITIAL_BACKOFF);
+	}
+
+	public int getMaxConcurrentRequests() {
+		return this.maxConcurrentRequests;
+	}
+
+	public long getRetryCount() {
+		return this.retries.get();
+	}
+
+	public <T> T execute(Callable<T> request) throws Exception {
+		int attempt = 0;
+		while (true) {
+			acquireToken();
+			permits.acquire();
+			try {
+				return request.call();
+			} catch (RetryableException exception) {
+				if (attempt >= maxRetries) throw exception;
+				long delay = backoff(attempt, exception.getRetryAfter());
+				retries.incrementAndGet();
+				permits.release();
+				try {
+					Thread.sleep(delay);
+				} finally {
+					permits.acquireUninterruptibly();
+				}
+				attempt++;
+			} finally {
+				permits.release();
+			}
+		}
+	}
+
+	// runs on at most maxConcurrentRequests threads, so submitted tasks must not wait for each other
+	public <T> Future<T> submit(Callable<T> task) {
+		return getExecutorService().submit(task);
+	}
+
+	private synchronized ExecutorService getExecutorService() {
+		if (executorService == null) {
+			AtomicInteger threadCount = new AtomicInteger();
+			executorService = Executors.newFixedThreadPool(maxConcurrentRequests, runnable -> {
+				Thread thread = new Thread(runnable, "sparql-endpoint-" + threadCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return executorService;
+	}
+
+	private void acquireToken() throws InterruptedException {
+		if (requestsPerSecond <= 0) return;
+		long wait;
+		synchronized (this) {
+			long now = System.nanoTime();
+			tokens = Math.min(maxConcurrentRequests, tokens + (now - lastRefill) * requestsPerSecond / 1e9);
+			lastRefill = now;
+			tokens -= 1;
+			// a negative balance is the time this request has to wait for its token
+			wait = tokens >= 0 ? 0 : (long)(-tokens / requestsPerSecond * 1e9);
+		}
+		if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+	}
+
+	// full jitter, but at least as long as the endpoint asked for
+	long backoff(int attempt, long retryAfter) {
+		long ceiling = Math.min(MAX_BACKOFF, initialBackoff << Math.min(attempt, 20));
+		long delay = initialBackoff / 2 + ThreadLocalRandom.current().nextLong(Math.max(1, ceiling - initialBackoff / 2));
+		return Math.max(delay, retryAfter);
+	}
+
+	@Override
+	public synchronized void close() {
+		if (executorService != null) {
+			executorService.shutdownNow();
+			executorService = null;
+		}
+	}
+
+}
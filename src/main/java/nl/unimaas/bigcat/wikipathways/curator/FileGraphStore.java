@@ -0,0 +1,219 @@
+/* Copyright (C) 2026  Egon Willighagen <egon.willighagen@gmail.com>
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   - Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package nl.unimaas.bigcat.wikipathways.curator;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.DatasetFactory;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFLib;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.GraphView;
+import org.apache.jena.system.Txn;
+
+// each file in its own named graph, so a single file can be replaced without loading the others;
+// the manifest keeps the fingerprint and parse error per file
+public class FileGraphStore {
+
+	private static final int FILES_PER_TRANSACTION = 200;
+	private static final String FILE_KEY = "file.";
+	private static final String ERROR_KEY = "error.";
+
+	private final Dataset dataset;
+	private Model union = null;
+	private Properties manifest = new Properties();
+	private List<File> updatedFiles = Collections.emptyList();
+	private TripleFilter filter = null;
+
+	public FileGraphStore() {
+		this(DatasetFactory.createGeneral());
+	}
+
+	protected FileGraphStore(Dataset dataset) {
+		this.dataset = dataset;
+	}
+
+	public Dataset getDataset() {
+		return this.dataset;
+	}
+
+	// null keeps all; files loaded with another filter are loaded again on the next update
+	public synchronized void setFilter(TripleFilter filter) {
+		this.filter = filter;
+	}
+
+	// union of all file graphs, usable without transactions
+	public synchronized Model getModel() {
+		if (union == null) {
+			Graph graph = dataset.asDatasetGraph().getUnionGraph();
+			// a view, so that it is read in a transaction while graphs can be replaced
+			if (!(graph instanceof GraphView)) graph = GraphView.createUnionGraph(dataset.asDatasetGraph());
+			union = ModelFactory.createModelForGraph(graph);
+		}
+		return union;
+	}
+
+	// in-memory copy of just these files
+	public Model getModel(Collection<File> files) {
+		Model model = ModelFactory.createDefaultModel();
+		Txn.executeRead(dataset, () -> {
+			for (File file : files)
+				dataset.asDatasetGraph().getGraph(graphName(file)).find().forEachRemaining(model.getGraph()::add);
+		});
+		return model;
+	}
+
+	public static Node graphName(File file) {
+		return NodeFactory.createURI(file.toURI().toString());
+	}
+
+	public synchronized List<File> getUpdatedFiles() {
+		return this.updatedFiles;
+	}
+
+	// returns one parse error line per failed file; triples before a parse error are kept
+	public synchronized String update(List<File> files, boolean hashContent) throws IOException {
+		Properties manifest = readManifest();
+		List<File> changed = new ArrayList<>();
+		List<String> fingerprints = new ArrayList<>();
+		Set<String> paths = new HashSet<>();
+		for (File file : files) {
+			String path = file.getAbsolutePath();
+			paths.add(path);
+			String fingerprint = fingerprint(file, hashContent);
+			if (!fingerprint.equals(manifest.getProperty(FILE_KEY + path))) {
+				changed.add(file);
+				fingerprints.add(fingerprint);
+			}
+		}
+		List<String> removed = new ArrayList<>();
+		for (String key : manifest.stringPropertyNames()) {
+			if (key.startsWith(FILE_KEY) && !paths.contains(key.substring(FILE_KEY.length())))
+				removed.add(key.substring(FILE_KEY.length()));
+		}
+
+		if (!removed.isEmpty()) {
+			Txn.executeWrite(dataset, () -> {
+				for (String path : removed) dataset.asDatasetGraph().removeGraph(graphName(new File(path)));
+			});
+			for (String path : removed) {
+				manifest.remove(FILE_KEY + path);
+				manifest.remove(ERROR_KEY + path);
+			}
+			writeManifest(manifest);
+		}
+		// the manifest is written after each commit, so that it never lists files the store does not have
+		for (int first = 0; first < changed.size(); first += FILES_PER_TRANSACTION) {
+			List<File> batch = changed.subList(first, Math.min(changed.size(), first + FILES_PER_TRANSACTION));
+			List<String> errors = new ArrayList<>();
+			Txn.executeWrite(dataset, () -> {
+				for (File file : batch) errors.add(load(dataset.asDatasetGraph(), file));
+			});
+			for (int i=0; i<batch.size(); i++)
+				setManifestEntry(manifest, batch.get(i), fingerprints.get(first + i), errors.get(i));
+			writeManifest(manifest);
+		}
+		this.updatedFiles = Collections.unmodifiableList(changed);
+		if (!changed.isEmpty() || !removed.isEmpty()) SPARQLHelper.invalidate(getModel());
+
+		StringBuilder report = new StringBuilder();
+		for (File file : files) {
+			String error = manifest.getProperty(ERROR_KEY + file.getAbsolutePath());
+			if (error != null) report.append(error);
+		}
+		return report.toString();
+	}
+
+	// in one transaction, so readers see either the old or the new graph
+	public synchronized String replaceGraph(File file, boolean hashContent) throws IOException {
+		Properties manifest = readManifest();
+		String fingerprint = fingerprint(file, hashContent);
+		String error = Txn.calculateWrite(dataset, () -> load(dataset.asDatasetGraph(), file));
+		setManifestEntry(manifest, file, fingerprint, error);
+		writeManifest(manifest);
+		this.updatedFiles = Collections.singletonList(file);
+		SPARQLHelper.invalidate(getModel());
+		return error;
+	}
+
+	private String fingerprint(File file, boolean hashContent) throws IOException {
+		String fingerprint = DatasetFingerprint.fileFingerprint(file, hashContent);
+		return filter == null ? fingerprint : fingerprint + "\tfilter:" + filter.getFingerprint();
+	}
+
+	private static void setManifestEntry(Properties manifest, File file, String fingerprint, String error) {
+		String path = file.getAbsolutePath();
+		manifest.setProperty(FILE_KEY + path, fingerprint);
+		if (error == null) manifest.remove(ERROR_KEY + path);
+		else manifest.setProperty(ERROR_KEY + path, error);
+	}
+
+	private String load(DatasetGraph dataset, File file) {
+		Node graphName = graphName(file);
+		dataset.removeGraph(graphName);
+		try (InputStream in = new FileInputStream(file)) {
+			StreamRDF sink = StreamRDFLib.graph(dataset.getGraph(graphName));
+			RDFDataMgr.parse(filter == null ? sink : filter.wrap(sink), in, "", Lang.TURTLE);
+		} catch (RiotException | IOException exception) {
+			return file.getName() + ": " + exception.getMessage() + '\n';
+		}
+		return null;
+	}
+
+	protected Properties readManifest() throws IOException {
+		return this.manifest;
+	}
+
+	protected void writeManifest(Properties manifest) throws IOException {
+		this.manifest = manifest;
+	}
+
+	@Override
+	public String toString() {
+		return "FileGraphStore[in memory]";
+	}
+
+}
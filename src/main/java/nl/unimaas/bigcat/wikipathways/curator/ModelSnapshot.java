@@ -0,0 +1,164 @@
+/* Copyright (C) 2026  Egon Willighagen <egon.willighagen@gmail.com>
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   - Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package nl.unimaas.bigcat.wikipathways.curator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFLib;
+import org.apache.jena.riot.system.StreamRDFWrapper;
+
+// RDF Thrift with a header of the input fingerprint and parse errors, so it is only
+// used as long as none of the files changed
+public class ModelSnapshot {
+
+	private static final String MAGIC = "WPRDF-SNAPSHOT";
+	private static final int FORMAT_VERSION = 1;
+
+	private final Model model;
+	private final String parseErrors;
+
+	private ModelSnapshot(Model model, String parseErrors) {
+		this.model = model;
+		this.parseErrors = parseErrors;
+	}
+
+	public static File fileFromSystemProperties() {
+		String file = System.getProperty("OPSWPRDF_SNAPSHOT");
+		if (file == null || file.trim().isEmpty() || file.startsWith("${")) return null;
+		return new File(file.trim());
+	}
+
+	public Model getModel() {
+		return this.model;
+	}
+
+	public String getParseErrors() {
+		return this.parseErrors;
+	}
+
+	// null if missing or of files with another fingerprint
+	public static ModelSnapshot read(File file, String fingerprint) throws IOException {
+		if (!file.exists()) return null;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+			if (!MAGIC.equals(in.readUTF()) || in.readInt() != FORMAT_VERSION)
+				throw new IOException("Not a snapshot of this version: " + file);
+			if (!fingerprint.equals(readString(in))) return null;
+			String parseErrors = readString(in);
+			Model model = ModelFactory.createDefaultModel();
+			RDFDataMgr.parse(new InterningStream(StreamRDFLib.graph(model.getGraph())), in, Lang.RDFTHRIFT);
+			return new ModelSnapshot(model, parseErrors);
+		} catch (RiotException exception) {
+			throw new IOException("Unreadable snapshot " + file + ": " + exception.getMessage(), exception);
+		}
+	}
+
+	// replaced atomically, so readers never see half a snapshot
+	public static void write(File file, String fingerprint, Model model, String parseErrors) throws IOException {
+		File folder = file.getAbsoluteFile().getParentFile();
+		if (!folder.exists() && !folder.mkdirs() && !folder.exists())
+			throw new IOException("Cannot create the folder " + folder);
+		File tmpFile = File.createTempFile("snapshot", ".tmp", folder);
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile), 1 << 16))) {
+				out.writeUTF(MAGIC);
+				out.writeInt(FORMAT_VERSION);
+				writeString(out, fingerprint);
+				writeString(out, parseErrors);
+				RDFDataMgr.write((OutputStream)out, model, RDFFormat.RDF_THRIFT);
+			}
+			Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			tmpFile.delete();
+		}
+	}
+
+	// the Thrift reader creates new nodes for each term, which takes more than twice
+	// the memory of a model parsed from Turtle
+	private static class InterningStream extends StreamRDFWrapper {
+
+		private final Map<Node,Node> nodes = new HashMap<>();
+
+		InterningStream(StreamRDF sink) {
+			super(sink);
+		}
+
+		private Node intern(Node node) {
+			Node existing = nodes.putIfAbsent(node, node);
+			return existing == null ? node : existing;
+		}
+
+		@Override
+		public void triple(Triple triple) {
+			super.triple(Triple.create(
+				intern(triple.getSubject()), intern(triple.getPredicate()), intern(triple.getObject())
+			));
+		}
+	}
+
+	// writeUTF() is limited to 64k, which parse errors of many files can exceed
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0) throw new IOException("Corrupt snapshot header");
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public String toString() {
+		return "ModelSnapshot[" + model.size() + " triples]";
+	}
+
+}
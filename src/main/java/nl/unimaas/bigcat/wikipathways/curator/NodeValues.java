@@ -0,0 +1,107 @@
+/* Copyright (C) 2026  Egon Willighagen <egon.willighagen@gmail.com>
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   - Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package nl.unimaas.bigcat.wikipathways.curator;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.apache.jena.datatypes.DatatypeFormatException;
+import org.apache.jena.graph.Node;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.XSD;
+
+final class NodeValues {
+
+	private NodeValues() {}
+
+	// IRIs for resources, the lexical form of strings, the value of other literals, null for blank nodes
+	static String toString(Node node) {
+		if (node == null) return null;
+		if (node.isURI()) return node.getURI();
+		if (!node.isLiteral()) return null;
+		if (isString(node)) return node.getLiteralLexicalForm();
+		try {
+			return "" + node.getLiteralValue();
+		} catch (DatatypeFormatException exception) {
+			return node.getLiteralLexicalForm(); // an ill-formed literal, like "abc"^^xsd:int
+		}
+	}
+
+	static boolean isString(Node node) {
+		String datatype = node.getLiteralDatatypeURI();
+		return datatype == null || XSD.xstring.getURI().equals(datatype) ||
+			RDF.langString.getURI().equals(datatype);
+	}
+
+	static boolean isLong(Node node) {
+		if (node == null || !node.isLiteral()) return false;
+		if (isString(node)) return isLong(node.getLiteralLexicalForm());
+		Object value;
+		try {
+			value = node.getLiteralValue();
+		} catch (DatatypeFormatException exception) {
+			return false;
+		}
+		if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte)
+			return true;
+		if (value instanceof BigInteger) return ((BigInteger)value).bitLength() < 64;
+		if (value instanceof BigDecimal) {
+			try {
+				((BigDecimal)value).longValueExact();
+				return true;
+			} catch (ArithmeticException exception) {
+				return false; // it has a fraction or is too large
+			}
+		}
+		return false;
+	}
+
+	static long toLong(Node node) {
+		if (node == null || !node.isLiteral()) throw new NumberFormatException("Not a literal: " + node);
+		if (isString(node) || !isLong(node)) return Long.parseLong(node.getLiteralLexicalForm());
+		return ((Number)node.getLiteralValue()).longValue();
+	}
+
+	static boolean isLong(String value) {
+		if (value == null || value.isEmpty()) return false;
+		int start = (value.charAt(0) == '-' || value.charAt(0) == '+') ? 1 : 0;
+		int digits = value.length() - start;
+		if (digits == 0) return false;
+		for (int i=start; i<value.length(); i++) {
+			char c = value.charAt(i);
+			if (c < '0' || c > '9') return false;
+		}
+		if (digits < 19) return true;
+		try {
+			Long.parseLong(value);
+			return true;
+		} catch (NumberFormatException exception) {
+			return false;
+		}
+	}
+
+}
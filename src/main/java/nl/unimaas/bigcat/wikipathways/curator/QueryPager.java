@@ -0,0 +1,85 @@
+/* Copyright (C) 2026  Egon Willighagen <egon.willighagen@gmail.com>
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   - Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package nl.unimaas.bigcat.wikipathways.curator;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.query.QueryParseException;
+import org.apache.jena.query.SortCondition;
+import org.apache.jena.sparql.core.Var;
+
+class QueryPager {
+
+	private final Query template;
+	private final int pageSize;
+
+	private QueryPager(Query template, int pageSize) {
+		this.template = template;
+		this.pageSize = pageSize;
+	}
+
+	// null when not a SELECT, already limited or offset, aggregated, or not parseable by Jena
+	static QueryPager create(String queryString, int pageSize) {
+		if (pageSize <= 0) return null;
+		Query query;
+		try {
+			query = QueryFactory.create(queryString);
+		} catch (QueryParseException exception) {
+			return null;
+		}
+		if (!query.isSelectType() || query.hasLimit() || query.hasOffset()) return null;
+		// each page would compute the whole aggregation again
+		if (query.hasAggregators() || query.hasGroupBy()) return null;
+		// pages are only stable if the order is, so all projected variables break ties
+		query.setResultVars();
+		Set<Var> ordered = new HashSet<>();
+		if (query.hasOrderBy()) {
+			for (SortCondition condition : query.getOrderBy()) {
+				if (condition.getExpression().isVariable()) ordered.add(condition.getExpression().asVar());
+			}
+		}
+		for (Var var : query.getProjectVars()) {
+			if (!ordered.contains(var)) query.addOrderBy(var, Query.ORDER_DEFAULT);
+		}
+		return new QueryPager(query, pageSize);
+	}
+
+	int getPageSize() {
+		return this.pageSize;
+	}
+
+	String getPage(int page) {
+		Query pageQuery = template.cloneQuery();
+		pageQuery.setLimit(pageSize);
+		pageQuery.setOffset((long)page * pageSize);
+		return pageQuery.serialize();
+	}
+
+}
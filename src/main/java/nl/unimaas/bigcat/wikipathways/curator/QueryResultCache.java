@@ -0,0 +1,193 @@
+/* Copyright (C) 2026  Egon Willighagen <egon.willighagen@gmail.com>
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   - Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package nl.unimaas.bigcat.wikipathways.curator;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.query.QueryParseException;
+
+// in-memory cache of SPARQL results, shared by all SPARQLHelpers, under the dataset fingerprint
+// and the normalized query; least recently used results are evicted by entries or by cells
+public class QueryResultCache {
+
+	public static final int DEFAULT_MAX_ENTRIES = 64;
+	public static final long DEFAULT_MAX_CELLS = 5000000;
+
+	private final int maxEntries;
+	private final long maxCells;
+	private final LinkedHashMap<String,CompletableFuture<StringMatrix>> entries =
+		new LinkedHashMap<String,CompletableFuture<StringMatrix>>(16, 0.75f, true);
+	private long cellCount = 0;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	public QueryResultCache(int maxEntries, long maxCells) {
+		this.maxEntries = maxEntries;
+		this.maxCells = maxCells;
+	}
+
+	public static QueryResultCache fromSystemProperties() {
+		String sizeProperty = System.getProperty("SPARQLCACHE_SIZE");
+		int maxEntries = DEFAULT_MAX_ENTRIES;
+		if (sizeProperty != null && !sizeProperty.trim().isEmpty())
+			maxEntries = Integer.parseInt(sizeProperty.trim());
+		return new QueryResultCache(maxEntries, DEFAULT_MAX_CELLS);
+	}
+
+	public boolean isEnabled() {
+		return maxEntries > 0;
+	}
+
+	// concurrent requests for the same query wait for the first one
+	public StringMatrix get(String datasetFingerprint, String queryString, Callable<StringMatrix> query)
+			throws Exception {
+		if (!isEnabled()) return query.call();
+
+		String key = key(datasetFingerprint, queryString);
+		CompletableFuture<StringMatrix> result;
+		boolean runQuery = false;
+		synchronized (this) {
+			result = entries.get(key);
+			if (result == null) {
+				result = new CompletableFuture<StringMatrix>();
+				entries.put(key, result);
+				runQuery = true;
+			}
+		}
+		if (!runQuery) {
+			hits.incrementAndGet();
+			try {
+				return result.get();
+			} catch (ExecutionException exception) {
+				if (exception.getCause() instanceof Exception) throw (Exception)exception.getCause();
+				throw exception;
+			}
+		}
+
+		misses.incrementAndGet();
+		StringMatrix table;
+		try {
+			table = query.call();
+		} catch (Exception exception) {
+			synchronized (this) { entries.remove(key); }
+			result.completeExceptionally(exception);
+			throw exception;
+		}
+		if (table == null) {
+			synchronized (this) { entries.remove(key); }
+			result.complete(null);
+			return null;
+		}
+		table.makeImmutable();
+		result.complete(table);
+		synchronized (this) {
+			if (entries.get(key) == result) cellCount += cells(table);
+			evict();
+		}
+		return table;
+	}
+
+	public StringMatrix getIfPresent(String datasetFingerprint, String queryString) {
+		if (!isEnabled()) return null;
+		CompletableFuture<StringMatrix> result;
+		synchronized (this) {
+			result = entries.get(key(datasetFingerprint, queryString));
+		}
+		if (result == null || !result.isDone() || result.isCompletedExceptionally()) return null;
+		hits.incrementAndGet();
+		return result.getNow(null);
+	}
+
+	private static String key(String datasetFingerprint, String queryString) {
+		return datasetFingerprint + "\n" + normalize(queryString);
+	}
+
+	private void evict() {
+		Iterator<CompletableFuture<StringMatrix>> iterator = entries.values().iterator();
+		while ((entries.size() > maxEntries || cellCount > maxCells) && iterator.hasNext()) {
+			CompletableFuture<StringMatrix> eldest = iterator.next();
+			if (!eldest.isDone()) continue; // still being queried
+			cellCount -= cells(eldest.getNow(null));
+			iterator.remove();
+		}
+	}
+
+	private static long cells(StringMatrix table) {
+		if (table == null) return 0;
+		return (long)table.getRowCount() * table.getColumnCount();
+	}
+
+	// like evicted results, spilled results are not released here, because callers may still
+	// read them: their files are deleted once they are garbage collected
+	public synchronized void invalidate(String datasetFingerprint) {
+		Iterator<Map.Entry<String,CompletableFuture<StringMatrix>>> iterator = entries.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<String,CompletableFuture<StringMatrix>> entry = iterator.next();
+			if (!entry.getKey().startsWith(datasetFingerprint + "\n") || !entry.getValue().isDone()) continue;
+			cellCount -= cells(entry.getValue().getNow(null));
+			iterator.remove();
+		}
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+		cellCount = 0;
+	}
+
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	// queries that Jena cannot parse only get their whitespace trimmed
+	static String normalize(String queryString) {
+		try {
+			return QueryFactory.create(queryString).serialize();
+		} catch (QueryParseException exception) {
+			return queryString.trim();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "QueryResultCache[entries=" + size() + ", hits=" + getHitCount() + ", misses=" + getMissCount() + "]";
+	}
+}
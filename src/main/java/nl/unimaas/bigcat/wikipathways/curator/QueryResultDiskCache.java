@@ -0,0 +1,145 @@
+/* Copyright (C) 2026  Egon Willighagen <egon.willighagen@gmail.com>
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   - Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package nl.unimaas.bigcat.wikipathways.curator;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+
+// results are stored per dataset fingerprint, so they are no longer used once an input file changes
+public class QueryResultDiskCache {
+
+	private static final String PROPERTIES_FILE = "dataset.properties";
+
+	private final File directory;
+
+	public QueryResultDiskCache(File directory) {
+		this.directory = directory;
+	}
+
+	public static QueryResultDiskCache fromSystemProperties() {
+		String folder = System.getProperty("SPARQLCACHE_DIR");
+		if (folder == null || folder.trim().isEmpty() || folder.startsWith("${")) return null;
+		return new QueryResultDiskCache(new File(folder.trim()));
+	}
+
+	public static boolean hashContent() {
+		return Boolean.getBoolean("SPARQLCACHE_HASHCONTENT");
+	}
+
+	public File getDirectory() {
+		return this.directory;
+	}
+
+	private File datasetDirectory(String datasetFingerprint) {
+		return new File(directory, DatasetFingerprint.hash(datasetFingerprint));
+	}
+
+	private File resultFile(String datasetFingerprint, String queryString) {
+		return new File(datasetDirectory(datasetFingerprint),
+			DatasetFingerprint.hash(QueryResultCache.normalize(queryString)) + ".smtx");
+	}
+
+	public StringMatrix get(String datasetFingerprint, String queryString, Callable<StringMatrix> query)
+			throws Exception {
+		StringMatrix cached = getIfPresent(datasetFingerprint, queryString);
+		if (cached != null) return cached;
+		File file = resultFile(datasetFingerprint, queryString);
+		StringMatrix table = query.call();
+		if (table != null) store(file, table);
+		return table;
+	}
+
+	public StringMatrix getIfPresent(String datasetFingerprint, String queryString) {
+		File file = resultFile(datasetFingerprint, queryString);
+		if (!file.exists()) return null;
+		try {
+			return StringMatrixFormat.read(file, SPARQLHelper::createTable);
+		} catch (IOException exception) {
+			return null; // like a miss, so that the query runs and the file is written again
+		}
+	}
+
+	private void store(File file, StringMatrix table) throws IOException {
+		File folder = file.getParentFile();
+		if (!folder.exists() && !folder.mkdirs() && !folder.exists())
+			throw new IOException("Cannot create the folder " + folder);
+		File tmpFile = File.createTempFile("result", ".tmp", folder);
+		try {
+			try (OutputStream out = new BufferedOutputStream(new FileOutputStream(tmpFile))) {
+				StringMatrixFormat.write(table, out, StringMatrixFormat.Compression.DEFLATE);
+			}
+			Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			tmpFile.delete();
+		}
+	}
+
+	public String getProperty(String datasetFingerprint, String name) {
+		File file = new File(datasetDirectory(datasetFingerprint), PROPERTIES_FILE);
+		if (!file.exists()) return null;
+		Properties properties = new Properties();
+		try (InputStream in = new FileInputStream(file)) {
+			properties.load(in);
+		} catch (IOException exception) {
+			return null;
+		}
+		return properties.getProperty(name);
+	}
+
+	public synchronized void setProperty(String datasetFingerprint, String name, String value) throws IOException {
+		File folder = datasetDirectory(datasetFingerprint);
+		File file = new File(folder, PROPERTIES_FILE);
+		Properties properties = new Properties();
+		if (file.exists()) {
+			try (InputStream in = new FileInputStream(file)) {
+				properties.load(in);
+			}
+		} else if (!folder.exists() && !folder.mkdirs() && !folder.exists()) {
+			throw new IOException("Cannot create the folder " + folder);
+		}
+		properties.setProperty(name, value);
+		File tmpFile = File.createTempFile("dataset", ".tmp", folder);
+		try {
+			try (OutputStream out = new FileOutputStream(tmpFile)) {
+				properties.store(out, datasetFingerprint.replace('\n', ' '));
+			}
+			Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			tmpFile.delete();
+		}
+	}
+
+}
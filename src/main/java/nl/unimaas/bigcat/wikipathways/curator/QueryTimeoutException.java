@@ -0,0 +1,63 @@
+/* Copyright (C) 2026  Egon Willighagen <egon.willighagen@gmail.com>
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   - Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package nl.unimaas.bigcat.wikipathways.curator;
+
+// the query is cancelled before this is thrown
+@SuppressWarnings("serial")
+public class QueryTimeoutException extends Exception {
+
+	private final String query;
+	private final long timeout;
+
+	// timeout in milliseconds
+	public QueryTimeoutException(String query, long timeout, String message, Throwable cause) {
+		super(message, cause);
+		this.query = query;
+		this.timeout = timeout;
+	}
+
+	public QueryTimeoutException(String query, long timeout, Throwable cause) {
+		this(query, timeout, "The SPARQL query did not finish within " + timeout + " ms", cause);
+	}
+
+	public String getQuery() {
+		return this.query;
+	}
+
+	public long getTimeout() {
+		return this.timeout;
+	}
+
+	public static QueryTimeoutException find(Throwable exception) {
+		while (exception != null) {
+			if (exception instanceof QueryTimeoutException) return (QueryTimeoutException)exception;
+			exception = exception.getCause();
+		}
+		return null;
+	}
+
+}
@@ -0,0 +1,82 @@
+/* Copyright (C) 2026  Egon Willighagen <egon.willighagen@gmail.com>
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   - Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package nl.unimaas.bigcat.wikipathways.curator;
+
+public class RenderOptions {
+
+	public enum Format {
+		TEXT,
+		TSV, // column names on the first line
+		JSON
+	}
+
+	public static final RenderOptions FULL = new RenderOptions(Format.TEXT, 0, 0);
+
+	// for assertion details
+	public static final RenderOptions DETAILS = new RenderOptions(Format.TEXT, 1000, 100000);
+
+	private final Format format;
+	private final int maxRows;
+	private final long maxChars;
+
+	// maxRows and maxChars are 0 for no limit
+	public RenderOptions(Format format, int maxRows, long maxChars) {
+		this.format = format;
+		this.maxRows = maxRows;
+		this.maxChars = maxChars;
+	}
+
+	public Format getFormat() {
+		return this.format;
+	}
+
+	public int getMaxRows() {
+		return this.maxRows;
+	}
+
+	public long getMaxChars() {
+		return this.maxChars;
+	}
+
+	public RenderOptions withFormat(Format format) {
+		return new RenderOptions(format, maxRows, maxChars);
+	}
+
+	public RenderOptions withMaxRows(int maxRows) {
+		return new RenderOptions(format, maxRows, maxChars);
+	}
+
+	public RenderOptions withMaxChars(long maxChars) {
+		return new RenderOptions(format, maxRows, maxChars);
+	}
+
+	@Override
+	public String toString() {
+		return "RenderOptions[" + format + ", maxRows=" + maxRows + ", maxChars=" + maxChars + "]";
+	}
+
+}
@@ -0,0 +1,149 @@
+/* Copyright (C) 2026  Egon Willighagen <egon.willighagen@gmail.com>
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   - Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package nl.unimaas.bigcat.wikipathways.curator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+// keys keep the order of their first row; the index is not updated when the matrix changes
+public class RowIndex {
+
+	public static final class Rows {
+
+		private final int[] rows;
+		private final int from;
+		private final int to;
+
+		private Rows(int[] rows, int from, int to) {
+			this.rows = rows;
+			this.from = from;
+			this.to = to;
+		}
+
+		public int size() {
+			return to - from;
+		}
+
+		// index counts from 0, row numbers from 1
+		public int get(int index) {
+			if (index < 0 || index >= size())
+				throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size());
+			return rows[from + index];
+		}
+
+		public int[] toArray() {
+			return Arrays.copyOfRange(rows, from, to);
+		}
+
+		@Override
+		public String toString() {
+			return Arrays.toString(toArray());
+		}
+	}
+
+	private static final Rows NO_ROWS = new Rows(new int[0], 0, 0);
+
+	private final Map<String,Integer> keyNumbers;
+	private final List<String> keys;
+	private final int[] offsets; // the rows of key k are rows[offsets[k]] up to rows[offsets[k+1]]
+	private final int[] rows;
+
+	// rows with a null key are left out
+	RowIndex(int rowCount, IntFunction<String> keyOfRow) {
+		keyNumbers = new HashMap<String,Integer>();
+		List<String> keyList = new ArrayList<String>();
+		int[] keyNumberOfRow = new int[rowCount];
+		int[] counts = new int[16];
+		int indexed = 0;
+		for (int row=1; row<=rowCount; row++) {
+			String key = keyOfRow.apply(row);
+			if (key == null) {
+				keyNumberOfRow[row-1] = -1;
+				continue;
+			}
+			Integer number = keyNumbers.get(key);
+			if (number == null) {
+				number = keyList.size();
+				keyNumbers.put(key, number);
+				keyList.add(key);
+				if (number == counts.length) counts = Arrays.copyOf(counts, counts.length * 2);
+			}
+			keyNumberOfRow[row-1] = number;
+			counts[number]++;
+			indexed++;
+		}
+		keys = Collections.unmodifiableList(keyList);
+		offsets = new int[keyList.size() + 1];
+		for (int k=0; k<keyList.size(); k++) offsets[k+1] = offsets[k] + counts[k];
+		rows = new int[indexed];
+		int[] next = Arrays.copyOf(offsets, keyList.size());
+		for (int row=1; row<=rowCount; row++) {
+			int number = keyNumberOfRow[row-1];
+			if (number >= 0) rows[next[number]++] = row;
+		}
+	}
+
+	public boolean containsKey(String key) {
+		return keyNumbers.containsKey(key);
+	}
+
+	public Rows getRows(String key) {
+		Integer number = keyNumbers.get(key);
+		if (number == null) return NO_ROWS;
+		return new Rows(rows, offsets[number], offsets[number+1]);
+	}
+
+	// 0 if there is none
+	public int getFirstRow(String key) {
+		Integer number = keyNumbers.get(key);
+		return number == null ? 0 : rows[offsets[number]];
+	}
+
+	public int getRowCount(String key) {
+		Integer number = keyNumbers.get(key);
+		return number == null ? 0 : offsets[number+1] - offsets[number];
+	}
+
+	public List<String> getKeys() {
+		return this.keys;
+	}
+
+	public int size() {
+		return keys.size();
+	}
+
+	@Override
+	public String toString() {
+		return "RowIndex[keys=" + keys.size() + ", rows=" + rows.length + "]";
+	}
+
+}
@@ -27,146 +27,835 @@
 package nl.unimaas.bigcat.wikipathways.curator;
 
 import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.SocketTimeoutException;
 import java.net.URL;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpHost;
-import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
 import org.apache.http.NameValuePair;
 import org.apache.http.StatusLine;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.util.EntityUtils;
+import org.apache.jena.graph.Node;
 import org.apache.jena.query.Query;
 import org.apache.jena.query.QueryExecution;
 import org.apache.jena.query.QueryExecutionFactory;
+import org.apache.jena.query.QueryCancelledException;
 import org.apache.jena.query.QueryFactory;
 import org.apache.jena.query.QuerySolution;
 import org.apache.jena.query.ResultSet;
-import org.apache.jena.query.ResultSetFactory;
-import org.apache.jena.rdf.model.Literal;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.RDFNode;
 import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.ResultSetMgr;
+import org.apache.jena.riot.resultset.ResultSetLang;
 import org.apache.jena.shared.PrefixMapping;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.binding.Binding;
 
-public class SPARQLHelper {
+public class SPARQLHelper implements Closeable {
+
+	public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 4;
+	public static final long IDLE_CONNECTION_TIMEOUT = 30; // in seconds
+
+	// formats that Jena parses while the response is still arriving come first,
+	// its JSON reader reads the whole response before returning the first row
+	public static final List<Lang> DEFAULT_RESULT_FORMATS = Collections.unmodifiableList(Arrays.asList(
+		ResultSetLang.SPARQLResultSetThrift,
+		ResultSetLang.SPARQLResultSetTSV,
+		ResultSetLang.SPARQLResultSetJSON,
+		ResultSetLang.SPARQLResultSetXML
+	));
+
+	@SuppressWarnings("serial")
+	private static final Map<String,Lang> resultFormatNames = new ConcurrentHashMap<String,Lang>() {{
+		put("thrift", ResultSetLang.SPARQLResultSetThrift);
+		put("tsv", ResultSetLang.SPARQLResultSetTSV);
+		put("csv", ResultSetLang.SPARQLResultSetCSV);
+		put("json", ResultSetLang.SPARQLResultSetJSON);
+		put("xml", ResultSetLang.SPARQLResultSetXML);
+	}};
+
+	private static final Map<String,List<Lang>> endpointResultFormats = new ConcurrentHashMap<>();
+
+	private static final QueryResultCache cache = QueryResultCache.fromSystemProperties();
+	private static final QueryResultDiskCache diskCache = QueryResultDiskCache.fromSystemProperties();
+	private static final Map<Model,String> modelFingerprints = new WeakHashMap<>();
+	private static final String dictionaryMode = dictionaryModeFromProperty();
+	private static final StringDictionary runDictionary =
+		"run".equals(dictionaryMode) ? new StringDictionary() : null;
+	private static final int spillRows = (int)longFromProperty("SPARQL_SPILL_ROWS");
+	private static final long spillBytes = longFromProperty("SPARQL_SPILL_MB") * 1024 * 1024;
+	private static long modelCounter = 0;
+
+	private static final ScheduledExecutorService timeoutScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "sparql-timeouts");
+		thread.setDaemon(true);
+		return thread;
+	});
+	// the time budget for all queries of this run, in System.nanoTime(), or 0 for none
+	private static volatile long runDeadline = deadlineFromProperty("SPARQL_RUN_TIMEOUT");
 
 	private Model model = null;
+	private Callable<Model> modelLoader = null;
 	private String endpoint = null;
+	private CloseableHttpClient httpClient = null;
+	private EndpointExecutor executor = null;
+	private String datasetFingerprint = null;
+	private boolean persistentFingerprint = false;
+	// the fingerprint of the model when this helper got it, see invalidate(Model)
+	private String modelVersion = null;
+	private DatasetStatistics statistics = null;
+	private long queryTimeout = millisFromProperty("SPARQL_TIMEOUT");
+	private int pageSize = pageSizeFromProperty();
+	private final Set<Runnable> runningQueries = ConcurrentHashMap.newKeySet();
 	
 	public SPARQLHelper(Model model) {
 		this.model = model;
+		this.datasetFingerprint = modelFingerprint(model);
+		this.modelVersion = this.datasetFingerprint;
+	}
+
+	public SPARQLHelper(Model model, String datasetFingerprint) {
+		this.model = model;
+		this.datasetFingerprint = datasetFingerprint;
+		this.persistentFingerprint = true;
+		this.modelVersion = modelFingerprint(model);
+	}
+
+	// the model is only loaded when a query is not found in the disk cache
+	public SPARQLHelper(Callable<Model> modelLoader, String datasetFingerprint) {
+		this.modelLoader = modelLoader;
+		this.datasetFingerprint = datasetFingerprint;
+		this.persistentFingerprint = true;
 	}
 
 	public SPARQLHelper(String endpoint) {
+		this(endpoint, DEFAULT_MAX_CONNECTIONS_PER_ROUTE);
+	}
+
+	// keeps a pool of persistent connections, released with close()
+	public SPARQLHelper(String endpoint, int maxConnectionsPerRoute) {
 		this.endpoint = endpoint;
+		this.datasetFingerprint = "endpoint:" + endpoint;
+		this.executor = EndpointExecutor.fromSystemProperties(maxConnectionsPerRoute);
+		PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+		connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+		connectionManager.setMaxTotal(Math.max(maxConnectionsPerRoute, connectionManager.getMaxTotal()));
+		connectionManager.setValidateAfterInactivity(2000);
+		try {
+			this.httpClient = createClientBuilder()
+				.setConnectionManager(connectionManager)
+				.setKeepAliveStrategy(keepAliveStrategy)
+				.evictExpiredConnections()
+				.evictIdleConnections(IDLE_CONNECTION_TIMEOUT, TimeUnit.SECONDS)
+				.build();
+		} catch (MalformedURLException exception) {
+			throw new IllegalArgumentException("Invalid http_proxy: " + exception.getMessage(), exception);
+		}
+	}
+
+	// keep connections alive as long as the server allows, or IDLE_CONNECTION_TIMEOUT
+	private static final ConnectionKeepAliveStrategy keepAliveStrategy = (response, context) -> {
+		long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+		return duration > 0 ? duration : IDLE_CONNECTION_TIMEOUT * 1000;
+	};
+
+	// SPARQL XML is always accepted as last resort
+	public static void setResultFormats(String endpoint, List<Lang> formats) {
+		if (formats.isEmpty()) throw new IllegalArgumentException("At least one result format is needed");
+		endpointResultFormats.put(endpoint, Collections.unmodifiableList(new ArrayList<Lang>(formats)));
+	}
+
+	public static List<Lang> getResultFormats(String endpoint) {
+		List<Lang> formats = endpointResultFormats.get(endpoint);
+		if (formats != null) return formats;
+		String formatsProperty = System.getProperty("SPARQLEP_FORMATS");
+		if (formatsProperty == null || formatsProperty.trim().isEmpty()) return DEFAULT_RESULT_FORMATS;
+		List<Lang> configured = new ArrayList<Lang>();
+		for (String name : formatsProperty.split(",")) {
+			Lang format = resultFormatNames.get(name.trim().toLowerCase(Locale.ROOT));
+			if (format == null) throw new IllegalArgumentException("Unknown SPARQL result format: " + name);
+			configured.add(format);
+		}
+		return configured;
+	}
+
+	static String acceptHeader(List<Lang> formats) {
+		StringBuilder accept = new StringBuilder();
+		float quality = 1.0f;
+		for (Lang format : formats) {
+			if (accept.length() > 0) accept.append(", ");
+			accept.append(format.getContentType().getContentTypeStr());
+			if (quality < 1.0f) accept.append(String.format(Locale.ROOT, ";q=%.1f", quality));
+			quality = Math.max(0.2f, quality - 0.1f);
+		}
+		if (!formats.contains(ResultSetLang.SPARQLResultSetXML)) {
+			accept.append(", ").append(ResultSetLang.SPARQLResultSetXML.getContentType().getContentTypeStr())
+			      .append(";q=0.1");
+		}
+		return accept.toString();
+	}
+
+	static Lang findResultFormat(Header contentType) {
+		if (contentType == null) return ResultSetLang.SPARQLResultSetXML;
+		String mimeType = contentType.getValue().split(";")[0].trim().toLowerCase(Locale.ROOT);
+		for (Lang format : resultFormatNames.values()) {
+			if (format.getContentType().getContentTypeStr().equals(mimeType)) return format;
+			for (String altType : format.getAltContentTypes()) {
+				if (altType.equals(mimeType)) return format;
+			}
+		}
+		return ResultSetLang.SPARQLResultSetXML;
+	}
+
+	// "table" for a dictionary per result, "run" for one shared by all results, or null
+	private static String dictionaryModeFromProperty() {
+		String mode = System.getProperty("SPARQL_DICTIONARY");
+		if (mode == null || mode.trim().isEmpty() || mode.startsWith("${")) return null;
+		mode = mode.trim().toLowerCase(Locale.ROOT);
+		if ("none".equals(mode)) return null;
+		if (!"table".equals(mode) && !"run".equals(mode))
+			throw new IllegalArgumentException("Unknown SPARQL_DICTIONARY mode: " + mode);
+		return mode;
+	}
+
+	static StringMatrix createTable(int expectedRows) {
+		StringMatrix table;
+		if (runDictionary != null) table = new StringMatrix(expectedRows, runDictionary);
+		else if ("table".equals(dictionaryMode)) table = new StringMatrix(expectedRows, new StringDictionary());
+		else table = new StringMatrix(expectedRows);
+		if (spillRows > 0 || spillBytes > 0) table.setSpillThreshold(spillRows, spillBytes);
+		return table;
+	}
+
+	private static long millisFromProperty(String property) {
+		String seconds = System.getProperty(property);
+		if (seconds == null || seconds.trim().isEmpty() || seconds.startsWith("${")) return 0;
+		return (long)(Double.parseDouble(seconds.trim()) * 1000);
+	}
+
+	private static long longFromProperty(String property) {
+		String value = System.getProperty(property);
+		if (value == null || value.trim().isEmpty() || value.startsWith("${")) return 0;
+		return Long.parseLong(value.trim());
+	}
+
+	private static int pageSizeFromProperty() {
+		String pageSize = System.getProperty("SPARQLEP_PAGESIZE");
+		if (pageSize == null || pageSize.trim().isEmpty() || pageSize.startsWith("${")) return 0;
+		return Integer.parseInt(pageSize.trim());
+	}
+
+	private static long deadlineFromProperty(String property) {
+		long budget = millisFromProperty(property);
+		return budget > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budget) : 0;
+	}
+
+	// in milliseconds, 0 for no limit
+	public void setQueryTimeout(long timeout) {
+		this.queryTimeout = timeout;
+	}
+
+	public long getQueryTimeout() {
+		return this.queryTimeout;
+	}
+
+	// in milliseconds from now, 0 for no limit
+	public static void setRunTimeout(long timeout) {
+		runDeadline = timeout > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout) : 0;
+	}
+
+	private long effectiveTimeout(String queryString) throws QueryTimeoutException {
+		long deadline = runDeadline;
+		if (deadline == 0) return queryTimeout;
+		long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+		if (remaining <= 0) throw new QueryTimeoutException(queryString, 0,
+			"The time budget for the SPARQL queries of this run is used up", null);
+		return queryTimeout > 0 ? Math.min(queryTimeout, remaining) : remaining;
+	}
+
+	// 0 to not use paging
+	public void setPageSize(int pageSize) {
+		this.pageSize = pageSize;
 	}
 
+	public int getPageSize() {
+		return this.pageSize;
+	}
+
+	public void cancelAll() {
+		for (Runnable cancel : runningQueries) cancel.run();
+	}
+
+	private static HttpClientBuilder createClientBuilder() throws MalformedURLException {
+		HttpClientBuilder builder = HttpClientBuilder.create();
+		String proxyString = System.getenv("http_proxy");
+		if (proxyString != null) {
+			URL proxyURL = new URL(proxyString);
+			HttpHost proxy = new HttpHost(proxyURL.getHost(), proxyURL.getPort());
+			builder.setProxy(proxy);
+		}
+		return builder;
+	}
+
+	@Override
+	public void close() throws IOException {
+		cancelAll();
+		if (executor != null) executor.close();
+		if (httpClient != null) {
+			httpClient.close();
+			httpClient = null;
+		}
+	}
+
+	private static synchronized String modelFingerprint(Model model) {
+		String fingerprint = modelFingerprints.get(model);
+		if (fingerprint == null) {
+			fingerprint = "model:" + (++modelCounter);
+			modelFingerprints.put(model, fingerprint);
+		}
+		return fingerprint;
+	}
+
+	public static void invalidate(Model model) {
+		String fingerprint;
+		synchronized (SPARQLHelper.class) {
+			fingerprint = modelFingerprints.remove(model);
+		}
+		if (fingerprint != null) cache.invalidate(fingerprint);
+	}
+
+	private String currentFingerprint() {
+		Model model = this.model;
+		if (model == null) return datasetFingerprint;
+		String current = modelFingerprint(model);
+		// a model that changed since this helper got it is no longer the data of its fingerprint
+		return current.equals(modelVersion) ? datasetFingerprint : current;
+	}
+
+	private boolean useDiskCache(String fingerprint) {
+		return diskCache != null && persistentFingerprint && fingerprint.equals(datasetFingerprint);
+	}
+
+	// results are shared via the cache and must not be modified
 	public StringMatrix sparql(String queryString) throws Exception {
-		if (model != null) return SPARQLHelper.sparql(model, queryString);
-		if (endpoint != null) return SPARQLHelper.sparql(endpoint, queryString);
+		String fingerprint = currentFingerprint();
+		if (model != null || modelLoader != null) return cache.get(fingerprint, queryString,
+			() -> sparqlLocal(fingerprint, queryString));
+		if (endpoint != null) {
+			if (httpClient == null) throw new IllegalStateException("This SPARQLHelper is already closed");
+			return cache.get(fingerprint, queryString, () -> {
+				QueryPager pager = QueryPager.create(queryString, pageSize);
+				if (pager != null) {
+					StringMatrix table = createTable(StringMatrix.INITIAL_ROW_CAPACITY);
+					try {
+						sparqlPaged(pager, row -> addRow(table, row));
+					} catch (Exception exception) {
+						table.release();
+						throw exception;
+					}
+					return table;
+				}
+				return executor.execute(() -> SPARQLHelper.sparql(httpClient, endpoint, queryString,
+					effectiveTimeout(queryString), runningQueries, SPARQLHelper::convertIntoTable));
+			});
+		}
 		return null;
 	}
 
+	// streamed results are not added to the memory or disk cache, so only stream
+	// results that a next run does not need to find cached
+	public void sparql(String queryString, RowConsumer consumer) throws Exception {
+		String fingerprint = currentFingerprint();
+		StringMatrix cached = cache.getIfPresent(fingerprint, queryString);
+		if (cached == null && useDiskCache(fingerprint))
+			cached = diskCache.getIfPresent(fingerprint, queryString);
+		if (cached != null) {
+			consumeRows(cached, 0, consumer);
+			return;
+		}
+
+		ResultSetHandler<Void> streamer = (prefixMap, results) -> {
+			consumeRows(results, consumer);
+			return null;
+		};
+		if (model != null || modelLoader != null) {
+			SPARQLHelper.sparql(getModel(), queryString, effectiveTimeout(queryString), runningQueries, streamer);
+		} else if (endpoint != null) {
+			if (httpClient == null) throw new IllegalStateException("This SPARQLHelper is already closed");
+			QueryPager pager = QueryPager.create(queryString, pageSize);
+			if (pager != null) {
+				sparqlPaged(pager, consumer);
+			} else {
+				executor.execute(() -> SPARQLHelper.sparql(httpClient, endpoint, queryString,
+					effectiveTimeout(queryString), runningQueries, streamer));
+			}
+		}
+	}
+
+	// pages are fetched in parallel and retried on their own, rows are passed on in order
+	private void sparqlPaged(QueryPager pager, RowConsumer consumer) throws Exception {
+		Deque<Future<StringMatrix>> pages = new ArrayDeque<>();
+		int rowCount = 0;
+		int nextPage = 0;
+		boolean lastPage = false;
+		try {
+			while (pages.size() < executor.getMaxConcurrentRequests())
+				pages.add(submitPage(pager.getPage(nextPage++)));
+			while (!pages.isEmpty()) {
+				StringMatrix page;
+				try {
+					page = pages.poll().get();
+				} catch (ExecutionException exception) {
+					if (exception.getCause() instanceof Exception) throw (Exception)exception.getCause();
+					throw exception;
+				}
+				if (lastPage) {
+					if (page.getRowCount() > 0) throw new Exception("Incomplete SPARQL result: the endpoint returned "
+						+ "fewer rows than the page size for a page that is not the last, probably because it limits "
+						+ "the number of rows; use a smaller SPARQLEP_PAGESIZE");
+					continue;
+				}
+				consumeRows(page, rowCount, consumer);
+				rowCount += page.getRowCount();
+				if (page.getRowCount() < pager.getPageSize()) {
+					lastPage = true;
+					// a short page is only the last one if the next one is empty
+					if (page.getRowCount() > 0 && pages.isEmpty()) pages.add(submitPage(pager.getPage(nextPage++)));
+				} else {
+					pages.add(submitPage(pager.getPage(nextPage++)));
+				}
+			}
+		} finally {
+			for (Future<StringMatrix> page : pages) page.cancel(true);
+		}
+	}
+
+	private static final int PAGE_RETRIES = 3;
+
+	private Future<StringMatrix> submitPage(String pageQuery) {
+		return executor.submit(() -> {
+			for (int attempt = 0; ; attempt++) {
+				try {
+					return executor.execute(() -> SPARQLHelper.sparql(httpClient, endpoint, pageQuery,
+						effectiveTimeout(pageQuery), runningQueries,
+						(prefixes, results) -> convertIntoTable(results, pageSize)));
+				} catch (IOException exception) {
+					if (attempt >= PAGE_RETRIES) throw exception;
+				}
+			}
+		});
+	}
+
+	private static void addRow(StringMatrix table, ResultRow row) {
+		for (String variable : row.getVariables()) {
+			int col;
+			if (table.hasColumn(variable)) {
+				col = table.getColumnNumber(variable);
+			} else {
+				col = table.getColumnCount() + 1;
+				table.setColumnName(col, variable);
+			}
+			String value = row.get(variable);
+			if (value != null) table.set(row.getRowNumber(), col, value);
+		}
+		if (table.getRowCount() < row.getRowNumber())
+			table.setSize(row.getRowNumber(), table.getColumnCount());
+	}
+
+	private static void consumeRows(ResultSet results, RowConsumer consumer) throws Exception {
+		SolutionRow row = new SolutionRow(results.getResultVars());
+		while (results.hasNext()) {
+			row.next(results.nextSolution());
+			consumer.accept(row);
+		}
+	}
+
+	private static void consumeRows(StringMatrix table, int rowOffset, RowConsumer consumer) throws Exception {
+		TableRow row = new TableRow(table, rowOffset);
+		for (int i=1; i<=table.getRowCount(); i++) {
+			row.row = i;
+			consumer.accept(row);
+		}
+	}
+
+	private static class SolutionRow implements ResultRow {
+
+		private final List<String> variables;
+		private QuerySolution solution = null;
+		private int rowNumber = 0;
+
+		SolutionRow(List<String> variables) {
+			this.variables = Collections.unmodifiableList(variables);
+		}
+
+		void next(QuerySolution solution) {
+			this.solution = solution;
+			this.rowNumber++;
+		}
+
+		@Override
+		public int getRowNumber() {
+			return this.rowNumber;
+		}
+
+		@Override
+		public List<String> getVariables() {
+			return this.variables;
+		}
+
+		@Override
+		public String get(String variable) {
+			return NodeValues.toString(node(variable));
+		}
+
+		@Override
+		public boolean isNumeric(String variable) {
+			return NodeValues.isLong(node(variable));
+		}
+
+		@Override
+		public long getLong(String variable) {
+			return NodeValues.toLong(node(variable));
+		}
+
+		private Node node(String variable) {
+			RDFNode node = solution.get(variable);
+			return node == null ? null : node.asNode();
+		}
+	}
+
+	private static class TableRow implements ResultRow {
+
+		private final StringMatrix table;
+		private final int rowOffset;
+		private final List<String> variables;
+		private int row = 0;
+
+		TableRow(StringMatrix table, int rowOffset) {
+			this.table = table;
+			this.rowOffset = rowOffset;
+			this.variables = table.hasColHeader()
+				? Collections.unmodifiableList(table.getColumnNames())
+				: Collections.<String>emptyList();
+		}
+
+		@Override
+		public int getRowNumber() {
+			return rowOffset + row;
+		}
+
+		@Override
+		public List<String> getVariables() {
+			return this.variables;
+		}
+
+		@Override
+		public String get(String variable) {
+			if (!table.hasColumn(variable)) return null;
+			return table.get(row, variable);
+		}
+
+		@Override
+		public boolean isNumeric(String variable) {
+			return table.hasColumn(variable) && table.isNumeric(row, variable);
+		}
+
+		@Override
+		public long getLong(String variable) {
+			if (!table.hasColumn(variable)) throw new NumberFormatException("Unknown variable: " + variable);
+			return table.getLong(row, variable);
+		}
+	}
+
+	@FunctionalInterface
+	private interface ResultSetHandler<T> {
+		T handle(PrefixMapping prefixMap, ResultSet results) throws Exception;
+	}
+
+	private StringMatrix sparqlLocal(String fingerprint, String queryString) throws Exception {
+		if (useDiskCache(fingerprint)) return diskCache.get(fingerprint, queryString,
+			() -> SPARQLHelper.sparql(getModel(), queryString, effectiveTimeout(queryString), runningQueries));
+		return SPARQLHelper.sparql(getModel(), queryString, effectiveTimeout(queryString), runningQueries);
+	}
+
+	public synchronized Model getModel() throws Exception {
+		if (model == null && modelLoader != null) {
+			model = modelLoader.call();
+			modelVersion = modelFingerprint(model);
+			modelLoader = null;
+		}
+		return model;
+	}
+
+	public synchronized DatasetStatistics getStatistics() {
+		if (statistics == null) statistics = new DatasetStatistics(this);
+		return statistics;
+	}
+
+	public String getEndpoint() {
+		return this.endpoint;
+	}
+
+	public String getDatasetFingerprint() {
+		return currentFingerprint();
+	}
+
+	public static QueryResultCache getCache() {
+		return cache;
+	}
+
 	public static StringMatrix sparql(Model model, String queryString)
 			throws Exception {
-		StringMatrix table = null;
+		return sparql(model, queryString, 0, null);
+	}
+
+	private static StringMatrix sparql(Model model, String queryString, long timeout,
+			Set<Runnable> runningQueries) throws Exception {
+		return sparql(model, queryString, timeout, runningQueries, SPARQLHelper::convertIntoTable);
+	}
+
+	private static <T> T sparql(Model model, String queryString, long timeout,
+			Set<Runnable> runningQueries, ResultSetHandler<T> handler) throws Exception {
+		T table = null;
 
 		// now the Jena part
 		Query query = QueryFactory.create(queryString);
         PrefixMapping prefixMap = query.getPrefixMapping();
         QueryExecution qexec = QueryExecutionFactory.create(query, model);
-        ResultSet results = qexec.execSelect();
-		table = convertIntoTable(prefixMap, results);
+        if (timeout > 0) qexec.setTimeout(timeout, TimeUnit.MILLISECONDS);
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        Runnable cancel = () -> { cancelled.set(true); qexec.abort(); };
+        if (runningQueries != null) runningQueries.add(cancel);
+        ReadTransaction transaction = ReadTransaction.begin(model);
+        try {
+        	ResultSet results = qexec.execSelect();
+        	table = handler.handle(prefixMap, results);
+        } catch (QueryCancelledException exception) {
+        	if (cancelled.get()) throw new CancellationException("The SPARQL query was cancelled");
+        	throw new QueryTimeoutException(queryString, timeout, exception);
+        } finally {
+        	if (runningQueries != null) runningQueries.remove(cancel);
+        	qexec.close();
+        	transaction.close();
+        }
 
 		return table;
 	}
 
 	public long size() {
-		if (endpoint != null) return 1000000; // TODO: return the actual triple count?
-		return this.model.size();
+		if (endpoint != null) {
+			try {
+				return getStatistics().getTripleCount();
+			} catch (Exception exception) {
+				throw new IllegalStateException("Could not count the triples of " + endpoint + ": " + exception.getMessage(), exception);
+			}
+		}
+		String fingerprint = currentFingerprint();
+		boolean useDiskCache = useDiskCache(fingerprint);
+		if (useDiskCache && this.model == null) {
+			String size = diskCache.getProperty(fingerprint, "size");
+			if (size != null) return Long.parseLong(size);
+		}
+		long size;
+		try {
+			Model data = getModel();
+			ReadTransaction transaction = ReadTransaction.begin(data);
+			try {
+				size = data.size();
+			} finally {
+				transaction.close();
+			}
+		} catch (Exception exception) {
+			throw new IllegalStateException("Could not load the data: " + exception.getMessage(), exception);
+		}
+		if (useDiskCache) {
+			try {
+				diskCache.setProperty(fingerprint, "size", "" + size);
+			} catch (IOException exception) {
+				throw new IllegalStateException("Could not cache the triple count: " + exception.getMessage(), exception);
+			}
+		}
+		return size;
+	}
+
+	public static QueryResultDiskCache getDiskCache() {
+		return diskCache;
 	}
 	
 	public static StringMatrix sparql(String endpoint, String queryString)
 			throws Exception {
-		StringMatrix table = null;
+		try (CloseableHttpClient httpclient = createClientBuilder().build()) {
+			return sparql(httpclient, endpoint, queryString, 0, null, SPARQLHelper::convertIntoTable);
+		}
+	}
 
+	// the timeout is also passed on to the endpoint as a hint (Virtuoso, Blazegraph)
+	private static <T> T sparql(CloseableHttpClient httpclient, String endpoint, String queryString,
+			long timeout, Set<Runnable> runningQueries, ResultSetHandler<T> handler) throws Exception {
 		// use Apache for doing the SPARQL query
-		HttpClientBuilder builder = HttpClientBuilder.create();
-		String proxyString = System.getenv("http_proxy");
-		if (proxyString != null) {
-			URL proxyURL = new URL(proxyString);
-			HttpHost proxy = new HttpHost(proxyURL.getHost(), proxyURL.getPort());
-			builder.setProxy(proxy);
+		List<NameValuePair> formparams = new ArrayList<NameValuePair>();
+		formparams.add(new BasicNameValuePair("query", queryString));
+		if (timeout > 0) formparams.add(new BasicNameValuePair("timeout", "" + timeout));
+		UrlEncodedFormEntity entity = new UrlEncodedFormEntity(formparams, "UTF-8");
+		List<Lang> formats = getResultFormats(endpoint);
+		HttpPost httppost = new HttpPost(endpoint);
+		httppost.setEntity(entity);
+		httppost.setHeader("Accept", acceptHeader(formats));
+		AtomicBoolean timedOut = new AtomicBoolean(false);
+		ScheduledFuture<?> timer = null;
+		if (timeout > 0) {
+			int intTimeout = (int)Math.min(timeout, Integer.MAX_VALUE);
+			httppost.setConfig(RequestConfig.custom()
+				.setConnectTimeout(intTimeout)
+				.setConnectionRequestTimeout(intTimeout)
+				.setSocketTimeout(intTimeout)
+				.build());
+			httppost.setHeader("X-BIGDATA-MAX-QUERY-MILLIS", "" + timeout);
+			timer = timeoutScheduler.schedule(() -> {
+				timedOut.set(true);
+				httppost.abort();
+			}, timeout, TimeUnit.MILLISECONDS);
+		}
+		Runnable cancel = httppost::abort;
+		if (runningQueries != null) runningQueries.add(cancel);
+		try {
+			return sparql(httpclient, httppost, endpoint, queryString, formats, timeout, runningQueries, handler);
+		} catch (Exception exception) {
+			if (timedOut.get() || exception instanceof SocketTimeoutException)
+				throw new QueryTimeoutException(queryString, timeout, exception);
+			if (httppost.isAborted()) throw new CancellationException("The SPARQL query was cancelled");
+			throw exception;
+		} finally {
+			if (timer != null) timer.cancel(false);
+			if (runningQueries != null) runningQueries.remove(cancel);
 		}
-		try (CloseableHttpClient httpclient = builder.build()) {
-			List<NameValuePair> formparams = new ArrayList<NameValuePair>();
-			formparams.add(new BasicNameValuePair("query", queryString));
-			UrlEncodedFormEntity entity = new UrlEncodedFormEntity(formparams, "UTF-8");
-			HttpPost httppost = new HttpPost(endpoint);
-			httppost.setEntity(entity);
-			HttpResponse response = httpclient.execute(httppost);
+	}
+
+	private static <T> T sparql(CloseableHttpClient httpclient, HttpPost httppost, String endpoint,
+			String queryString, List<Lang> formats, long timeout, Set<Runnable> runningQueries,
+			ResultSetHandler<T> handler) throws Exception {
+		T table = null;
+		try (CloseableHttpResponse response = httpclient.execute(httppost)) {
 			StatusLine status = response.getStatusLine(); 
 			HttpEntity responseEntity = response.getEntity();
-			if (status.getStatusCode() != 200) {
-				ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-				responseEntity.writeTo(buffer);
-				throw new Exception("Invalid SPARQL result: " + status.getReasonPhrase() + ": " + buffer.toString());
-			}
-			InputStream in = responseEntity.getContent();
-
-			// now the Jena part
-			ResultSet results = ResultSetFactory.fromXML(in);
-			table = convertIntoTable(null, results);
+			try {
+				if (status.getStatusCode() == HttpStatus.SC_NOT_ACCEPTABLE &&
+					!formats.equals(Collections.singletonList(ResultSetLang.SPARQLResultSetXML))) {
+					// the endpoint does not like our preferences: use SPARQL XML from now on
+					setResultFormats(endpoint, Collections.singletonList(ResultSetLang.SPARQLResultSetXML));
+					EntityUtils.consume(responseEntity);
+					return sparql(httpclient, endpoint, queryString, timeout, runningQueries, handler);
+				}
+				if (status.getStatusCode() != 200) {
+					ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+					responseEntity.writeTo(buffer);
+					if (EndpointExecutor.isRetryable(status.getStatusCode())) throw new EndpointExecutor.RetryableException(
+						status.getStatusCode(), "Endpoint not available: " + status.getReasonPhrase() + ": " + buffer.toString(),
+						retryAfter(response.getFirstHeader("Retry-After"))
+					);
+					throw new Exception("Invalid SPARQL result: " + status.getReasonPhrase() + ": " + buffer.toString());
+				}
+				InputStream in = responseEntity.getContent();
 
-			in.close();
-		} catch (IOException exception) {
-			throw exception;
+				// now the Jena part: rows are parsed while they are read from the response
+				Lang format = findResultFormat(responseEntity.getContentType());
+				ResultSet results = ResultSetMgr.read(in, format);
+				table = handler.handle(null, results);
+			} finally {
+				// fully read the response, so that the connection can be reused
+				EntityUtils.consume(responseEntity);
+			}
 		}
 		return table;
 	}
 
+	private static long retryAfter(Header header) {
+		if (header == null) return -1;
+		try {
+			return Long.parseLong(header.getValue().trim()) * 1000;
+		} catch (NumberFormatException exception) {
+			return -1; // an HTTP date, which we ignore
+		}
+	}
+
 	private static StringMatrix convertIntoTable(
 			PrefixMapping prefixMap, ResultSet results) {
-		StringMatrix table = new StringMatrix();
+		return convertIntoTable(results, StringMatrix.INITIAL_ROW_CAPACITY);
+	}
+
+	private static StringMatrix convertIntoTable(ResultSet results, int expectedRows) {
+		StringMatrix table = createTable(expectedRows);
+		List<String> varNames = results.getResultVars();
+		Var[] vars = new Var[varNames.size()];
+		for (int col=1; col<=vars.length; col++) {
+			vars[col-1] = Var.alloc(varNames.get(col-1));
+			table.setColumnName(col, varNames.get(col-1));
+		}
 		int rowCount = 0;
-		while (results.hasNext()) {
-			rowCount++;
-			QuerySolution soln = results.nextSolution();
-			Iterator<String> varNames = soln.varNames();
-			while (varNames.hasNext()) {
-				String varName = varNames.next();
-				int colCount = -1;
-				if (table.hasColumn(varName)) {
-					colCount = table.getColumnNumber(varName);
-				} else {
-					colCount = table.getColumnCount() + 1;
-					table.setColumnName(colCount, varName);
-				}
-				RDFNode node = soln.get(varName);
-				if (node != null) {
-					if (node.isResource()) {
-						Resource resource = (Resource)node;
-						table.set(rowCount, colCount,
-							resource.getURI()
-						);
+		try {
+			while (results.hasNext()) {
+				rowCount++;
+				Binding binding = results.nextBinding();
+				for (int col=1; col<=vars.length; col++) {
+					Node node = binding.get(vars[col-1]);
+					if (node == null) continue;
+					if (node.isURI()) {
+						table.set(rowCount, col, node.getURI());
 					} else if (node.isLiteral()) {
-						Literal literal = (Literal)node;
-						table.set(rowCount, colCount, "" + literal.getValue());
+						// typed literals are kept as node, and only parsed when used
+						if (NodeValues.isString(node)) {
+							table.set(rowCount, col, node.getLiteralLexicalForm());
+						} else {
+							table.setNode(rowCount, col, node);
+						}
+					} else {
+						table.set(rowCount, col, null); // blank nodes have no IRI
 					}
 				}
 			}
+		} catch (RuntimeException exception) {
+			table.release(); // e.g. when the query timed out
+			throw exception;
 		}
+		if (table.getRowCount() < rowCount) table.setSize(rowCount, vars.length);
 		return table;
 	}
 
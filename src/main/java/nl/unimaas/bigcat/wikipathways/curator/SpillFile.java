@@ -0,0 +1,190 @@
+/* Copyright (C) 2026  Egon Willighagen <egon.willighagen@gmail.com>
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   - Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package nl.unimaas.bigcat.wikipathways.curator;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// append-only and memory-mapped in segments, each string stored as its length and UTF-8 bytes;
+// deleted on close, when its matrix is garbage collected, or at the latest on JVM exit.
+class SpillFile implements Closeable {
+
+	static final int SEGMENT_SIZE = 1 << 26; // 64 MB
+	private static final long FIRST_POSITION = 8; // so that 0 can mean null
+
+	private static final ReferenceQueue<Object> releasedOwners = new ReferenceQueue<Object>();
+	private static final Map<Reference<Object>,SpillFile> openFiles = new ConcurrentHashMap<>();
+	static {
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			for (SpillFile file : openFiles.values()) file.close();
+		}, "spill-file-cleanup"));
+	}
+
+	private final File file;
+	private final RandomAccessFile raf;
+	private final FileChannel channel;
+	private final Reference<Object> ownerReference;
+	private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+	private final List<String> largeValues = new ArrayList<String>(); // longer than a segment
+	private long position = FIRST_POSITION;
+	private volatile boolean closed = false;
+
+	private SpillFile(File file, Object owner) throws IOException {
+		this.file = file;
+		this.raf = new RandomAccessFile(file, "rw");
+		this.channel = raf.getChannel();
+		this.ownerReference = new PhantomReference<Object>(owner, releasedOwners);
+		openFiles.put(ownerReference, this);
+	}
+
+	static SpillFile create(Object owner) throws IOException {
+		closeReleased();
+		File folder = null;
+		String folderProperty = System.getProperty("SPARQL_SPILL_DIR");
+		if (folderProperty != null && !folderProperty.trim().isEmpty() && !folderProperty.startsWith("${")) {
+			folder = new File(folderProperty.trim());
+			if (!folder.exists() && !folder.mkdirs() && !folder.exists())
+				throw new IOException("Cannot create the folder " + folder);
+		}
+		return new SpillFile(File.createTempFile("matrix", ".spill", folder), owner);
+	}
+
+	private static void closeReleased() {
+		Reference<?> released;
+		while ((released = releasedOwners.poll()) != null) {
+			SpillFile file = openFiles.get(released);
+			if (file != null) file.close();
+		}
+	}
+
+	// positions are never 0
+	long append(String value) {
+		checkOpen();
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		int length = 4 + bytes.length;
+		if (length > SEGMENT_SIZE) {
+			synchronized (largeValues) {
+				largeValues.add(value);
+				return -largeValues.size();
+			}
+		}
+		// strings do not cross segment boundaries, so that they are in one buffer
+		if (position % SEGMENT_SIZE + length > SEGMENT_SIZE)
+			position = (position / SEGMENT_SIZE + 1) * SEGMENT_SIZE;
+		ByteBuffer buffer = segment((int)(position / SEGMENT_SIZE)).duplicate();
+		buffer.position((int)(position % SEGMENT_SIZE));
+		buffer.putInt(bytes.length);
+		buffer.put(bytes);
+		long stored = position;
+		position += length;
+		return stored;
+	}
+
+	String read(long position) {
+		checkOpen();
+		if (position < 0) {
+			synchronized (largeValues) {
+				return largeValues.get((int)(-position - 1));
+			}
+		}
+		ByteBuffer buffer = segments[(int)(position / SEGMENT_SIZE)].duplicate();
+		buffer.position((int)(position % SEGMENT_SIZE));
+		byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private MappedByteBuffer segment(int index) {
+		MappedByteBuffer[] current = segments;
+		if (index < current.length) return current[index];
+		try {
+			current = Arrays.copyOf(current, index + 1);
+			for (int i=segments.length; i<=index; i++)
+				current[i] = channel.map(FileChannel.MapMode.READ_WRITE, (long)i * SEGMENT_SIZE, SEGMENT_SIZE);
+		} catch (IOException exception) {
+			throw new UncheckedIOException("Cannot extend the spill file " + file, exception);
+		}
+		segments = current; // publishes the new segment to read()
+		return current[index];
+	}
+
+	long size() {
+		return position;
+	}
+
+	File getFile() {
+		return this.file;
+	}
+
+	private void checkOpen() {
+		if (closed) throw new IllegalStateException("The spill file " + file + " is closed");
+	}
+
+	// mapped segments are only unmapped by the GC, so where open files cannot be deleted
+	// (Windows) the file is deleted on JVM exit
+	@Override
+	public synchronized void close() {
+		if (closed) return;
+		closed = true;
+		openFiles.remove(ownerReference);
+		segments = new MappedByteBuffer[0];
+		try {
+			channel.close();
+			raf.close();
+		} catch (IOException exception) {
+			// the file is deleted anyway
+		}
+		if (!file.delete() && file.exists()) {
+			try {
+				file.deleteOnExit();
+			} catch (IllegalStateException exception) {
+				// closed by the shutdown hook, too late to ask
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "SpillFile[" + file + ", " + position + " bytes]";
+	}
+
+}
@@ -0,0 +1,65 @@
+/* Copyright (C) 2026  Egon Willighagen <egon.willighagen@gmail.com>
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   - Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package nl.unimaas.bigcat.wikipathways.curator;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// strings are never removed, so a dictionary shared by a run grows with all its distinct values
+public class StringDictionary {
+
+	private final Map<String,Integer> codes = new HashMap<String,Integer>();
+	private volatile String[] values = new String[64];
+	private int size = 0;
+
+	public synchronized int encode(String value) {
+		if (value == null) throw new NullPointerException("Cannot encode null");
+		Integer code = codes.get(value);
+		if (code != null) return code;
+		String[] current = values;
+		if (size == current.length) current = Arrays.copyOf(current, current.length * 2);
+		current[size] = value;
+		values = current; // publishes the new value to decode()
+		codes.put(value, size);
+		return size++;
+	}
+
+	public String decode(int code) {
+		return values[code];
+	}
+
+	public synchronized int size() {
+		return size;
+	}
+
+	@Override
+	public String toString() {
+		return "StringDictionary[size=" + size() + "]";
+	}
+
+}
@@ -26,22 +26,146 @@
  */
 package nl.unimaas.bigcat.wikipathways.curator;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
-import java.util.Hashtable;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.IntFunction;
 
+import org.apache.jena.graph.Node;
+
+// 1-based table of strings, stored per column in arrays that grow as rows are added;
+// spilled matrices should be release()d when no longer used
 public class StringMatrix {
 
-        private Map<Integer,Map<Integer,String>> matrix;
+        static final int INITIAL_ROW_CAPACITY = 16;
+        private static final int DICTIONARY_SAMPLE_SIZE = 1024;
+        private static final int STRING_OVERHEAD = 48; // estimated heap bytes of a String, besides its characters
+        private static final int NODE_SIZE = 128; // estimated heap bytes of a literal Node
+
+        private Object[][] columns = new Object[0][]; // String, Node, or TypedValue values
+        private final StringDictionary dictionary;
+        private int[][] codeColumns = new int[0][]; // the code plus one, or 0 for null
+        private int[] encodedCounts = new int[0];
+        private int[] newValueCounts = new int[0];
+        private long[][] spilledColumns = new long[0][]; // positions in the spill file, or 0 for null
+        private SpillFile spill = null;
+        private int spillRows = 0;
+        private long spillBytes = 0;
+        private long valueBytes = 0; // estimated heap size of the plain values
+        private BitSet rowsWithValues = new BitSet();
+        private int rowCapacity;
         private int cols;
         private int rows;
-        private Map<Integer,String> rowHeaders;
-        private Map<Integer,String> colHeaders;
+        private String[] rowHeaders;
+        private String[] colHeaders;
+        private Map<String,Integer> colNumbers;
+        private boolean immutable = false;
+
+        // column looked up by name once, for loops over many rows
+        public static final class ColumnRef {
+
+                private final StringMatrix matrix;
+                private final int col;
+                private final String name;
+
+                private ColumnRef(StringMatrix matrix, int col, String name) {
+                        this.matrix = matrix;
+                        this.col = col;
+                        this.name = name;
+                }
+
+                public String get(int row) {
+                        return matrix.get(row, col);
+                }
+
+                public boolean isNumeric(int row) {
+                        return matrix.isNumeric(row, col);
+                }
+
+                public long getLong(int row) {
+                        return matrix.getLong(row, col);
+                }
+
+                public int getColumnNumber() {
+                        return this.col;
+                }
+
+                public String getName() {
+                        return this.name;
+                }
+
+                public String toString() {
+                        return "ColumnRef[" + name + "=" + col + "]";
+                }
+        }
+
+        // string is set on the first get()
+        private static final class TypedValue {
+
+                final Node node;
+                final String string;
+
+                TypedValue(Node node) {
+                        this.node = node;
+                        this.string = NodeValues.toString(node);
+                }
+        }
 
         public StringMatrix() {
+                this(INITIAL_ROW_CAPACITY);
+        }
+
+        public StringMatrix(int expectedRows) {
+                this(expectedRows, null);
+        }
+
+        // stores codes in the dictionary, or strings if it is null
+        public StringMatrix(int expectedRows, StringDictionary dictionary) {
                 cols = 0;
                 rows = 0;
+                rowCapacity = Math.max(1, expectedRows);
+                this.dictionary = dictionary;
+        }
+
+        public StringDictionary getDictionary() {
+                return this.dictionary;
+        }
+
+        // 0 means no limit; dictionary codes and file positions stay on the heap
+        public void setSpillThreshold(int maxRows, long maxBytes) {
+                checkMutable();
+                this.spillRows = maxRows;
+                this.spillBytes = maxBytes;
+                if (spill == null && isOverSpillThreshold()) spill();
+        }
+
+        public boolean isSpilled() {
+                return spill != null;
+        }
+
+        // values of a released matrix can no longer be read
+        public void release() {
+                if (spill != null) spill.close();
+        }
+
+        public void makeImmutable() {
+                this.immutable = true;
+        }
+
+        public boolean isImmutable() {
+                return this.immutable;
+        }
+
+        private void checkMutable() {
+                if (immutable)
+                        throw new UnsupportedOperationException(
+                                "This matrix is immutable"
+                        );
         }
 
         private void checkDimensions(int row, int col) {
@@ -61,14 +185,63 @@ public class StringMatrix {
                         );
         }
 
+        // null if the cell was not set, an empty string if no cell of the row was set
         public String get(int row, int col) {
+                Object value = getValue(row, col);
+                if (value instanceof Node) {
+                        // only converted once, as the cells of shared results are read by many tests
+                        TypedValue typed = new TypedValue((Node)value);
+                        columns[col-1][row-1] = typed;
+                        return typed.string;
+                }
+                if (value instanceof TypedValue) return ((TypedValue)value).string;
+                return (String)value;
+        }
+
+        public boolean isNumeric(int row, int col) {
+                Object value = getValue(row, col);
+                if (value instanceof TypedValue) return NodeValues.isLong(((TypedValue)value).node);
+                if (value instanceof Node) return NodeValues.isLong((Node)value);
+                return NodeValues.isLong((String)value);
+        }
+
+        public boolean isNumeric(int row, String col) {
+                checkRows(row);
+                return isNumeric(row, getColumnNumber(col));
+        }
+
+        public long getLong(int row, int col) {
+                Object value = getValue(row, col);
+                if (value instanceof TypedValue) return NodeValues.toLong(((TypedValue)value).node);
+                if (value instanceof Node) return NodeValues.toLong((Node)value);
+                return Long.parseLong((String)value);
+        }
+
+        public long getLong(int row, String col) {
+                checkRows(row);
+                return getLong(row, getColumnNumber(col));
+        }
+
+        private Object getValue(int row, int col) {
                 checkDimensions(row, col);
 
-                if (matrix == null) return "";
-                Map<Integer,String> matrixRow = matrix.get(row);
-                if (matrixRow == null) return "";
+                if (!rowsWithValues.get(row)) return "";
+                if (col <= spilledColumns.length && spilledColumns[col-1] != null) {
+                        long[] positions = spilledColumns[col-1];
+                        if (row > positions.length || positions[row-1] == 0) return null;
+                        return spill.read(positions[row-1]);
+                }
+                if (col <= columns.length && columns[col-1] != null) {
+                        Object[] column = columns[col-1];
+                        return row > column.length ? null : column[row-1];
+                }
+                if (col <= codeColumns.length && codeColumns[col-1] != null) {
+                        int[] codes = codeColumns[col-1];
+                        if (row > codes.length || codes[row-1] == 0) return null;
+                        return dictionary.decode(codes[row-1] - 1);
+                }
 
-                return matrixRow.get(col);
+                return null;
         }
 
         public String get(int row, String col) {
@@ -81,29 +254,38 @@ public class StringMatrix {
         }
 
         public boolean hasColumn(String col) {
-            if (colHeaders == null) return false;
+            if (colNumbers == null) return false;
 
-            return colHeaders.containsValue(col);
+            return colNumbers.containsKey(col);
         }
 
         public int getColumnNumber(String col) {
-                if (colHeaders != null) {
-                        for (Integer colIndex : colHeaders.keySet()) {
-                                String colname = colHeaders.get(colIndex);
-                                if (colname != null && colname.equals(col))
-                                        return colIndex;
-                        }
+                if (colNumbers != null) {
+                        Integer colIndex = colNumbers.get(col);
+                        if (colIndex != null) return colIndex;
                 }
                 throw new IllegalAccessError(
                         "No column found with this label."
                 );
         }
 
+        public ColumnRef getColumnRef(String col) {
+                return new ColumnRef(this, getColumnNumber(col), col);
+        }
+
+        public String get(int row, ColumnRef col) {
+                if (col.matrix != this)
+                        throw new IllegalArgumentException(
+                                "The column belongs to another matrix"
+                        );
+                return get(row, col.col);
+        }
+
         public String getColumnName(int index) {
                 checkCols(index);
 
                 if (colHeaders == null) return "";
-                return colHeaders.get(index);
+                return index > colHeaders.length ? null : colHeaders[index-1];
         }
 
         public int getRowCount() {
@@ -114,7 +296,7 @@ public class StringMatrix {
                 checkRows(index);
 
                 if (rowHeaders == null) return "";
-                return rowHeaders.get(index);
+                return index > rowHeaders.length ? null : rowHeaders[index-1];
         }
 
         public boolean hasColHeader() {
@@ -126,41 +308,205 @@ public class StringMatrix {
         }
 
         public void set(int row, int col, String value) {
+                setValue(row, col, value);
+        }
+
+        // typed literals are only turned into a string when read; matrices with a dictionary store the string
+        public void setNode(int row, int col, Node node) {
+                setValue(row, col, node);
+        }
+
+        private void setValue(int row, int col, Object value) {
+                checkMutable();
                 if (row > rows) rows = row;
                 if (col > cols) cols = col;
                 checkDimensions(row, col);
 
-                if (matrix == null)
-                        matrix = new Hashtable<Integer, Map<Integer,String>>(row);
-                Map<Integer,String> matrixRow = matrix.get(row);
-                if (matrixRow == null) {
-                        matrixRow = new Hashtable<Integer, String>(col);
-                        matrix.put(row, matrixRow);
+                if (dictionary != null && (col > columns.length || columns[col-1] == null) &&
+                    (col > spilledColumns.length || spilledColumns[col-1] == null)) {
+                        setEncoded(row, col, asString(value));
+                        return;
                 }
-                
-                matrixRow.put(col, value);
+                if (spill != null) {
+                        setSpilled(row, col, asString(value));
+                        return;
+                }
+                if (col > columns.length)
+                        columns = Arrays.copyOf(columns, Math.max(col, columns.length * 2));
+                Object[] column = columns[col-1];
+                if (column == null) {
+                        if (row > rowCapacity) rowCapacity = grow(rowCapacity, row);
+                        column = new Object[rowCapacity];
+                        columns[col-1] = column;
+                } else if (row > column.length) {
+                        if (row > rowCapacity) rowCapacity = grow(rowCapacity, row);
+                        column = Arrays.copyOf(column, rowCapacity);
+                        columns[col-1] = column;
+                }
+
+                column[row-1] = value;
+                rowsWithValues.set(row);
+                if (value instanceof String) valueBytes += STRING_OVERHEAD + ((String)value).length();
+                else if (value != null) valueBytes += NODE_SIZE;
+                if (isOverSpillThreshold()) spill();
+        }
+
+        private static String asString(Object value) {
+                if (value instanceof TypedValue) return ((TypedValue)value).string;
+                return value instanceof Node ? NodeValues.toString((Node)value) : (String)value;
+        }
+
+        private boolean isOverSpillThreshold() {
+                return (spillRows > 0 && rows > spillRows) || (spillBytes > 0 && valueBytes > spillBytes);
+        }
+
+        private void spill() {
+                try {
+                        spill = SpillFile.create(this);
+                } catch (IOException exception) {
+                        throw new UncheckedIOException("Cannot move the table to disk", exception);
+                }
+                for (int col=1; col<=columns.length; col++) {
+                        if (columns[col-1] != null) spillColumn(col);
+                }
+                valueBytes = 0;
+        }
+
+        private void spillColumn(int col) {
+                Object[] column = columns[col-1];
+                long[] positions = new long[column.length];
+                for (int i=0; i<column.length; i++) {
+                        if (column[i] != null) positions[i] = spill.append(asString(column[i]));
+                }
+                if (col > spilledColumns.length)
+                        spilledColumns = Arrays.copyOf(spilledColumns, Math.max(col, spilledColumns.length * 2));
+                spilledColumns[col-1] = positions;
+                columns[col-1] = null;
+        }
+
+        // the old value of a changed cell stays in the file
+        private void setSpilled(int row, int col, String value) {
+                if (col > spilledColumns.length)
+                        spilledColumns = Arrays.copyOf(spilledColumns, Math.max(col, spilledColumns.length * 2));
+                long[] positions = spilledColumns[col-1];
+                if (positions == null) {
+                        if (row > rowCapacity) rowCapacity = grow(rowCapacity, row);
+                        positions = new long[rowCapacity];
+                        spilledColumns[col-1] = positions;
+                } else if (row > positions.length) {
+                        if (row > rowCapacity) rowCapacity = grow(rowCapacity, row);
+                        positions = Arrays.copyOf(positions, rowCapacity);
+                        spilledColumns[col-1] = positions;
+                }
+
+                positions[row-1] = value == null ? 0 : spill.append(value);
+                rowsWithValues.set(row);
+        }
+
+        private void setEncoded(int row, int col, String value) {
+                if (col > codeColumns.length) {
+                        int length = Math.max(col, codeColumns.length * 2);
+                        codeColumns = Arrays.copyOf(codeColumns, length);
+                        encodedCounts = Arrays.copyOf(encodedCounts, length);
+                        newValueCounts = Arrays.copyOf(newValueCounts, length);
+                }
+                int code = 0;
+                if (value != null) {
+                        int dictionarySize = dictionary.size();
+                        code = dictionary.encode(value) + 1;
+                        if (code > dictionarySize) newValueCounts[col-1]++;
+                        encodedCounts[col-1]++;
+                }
+                setCode(row, col, code);
+
+                // a column with mostly distinct values is smaller without the dictionary
+                if (encodedCounts[col-1] == DICTIONARY_SAMPLE_SIZE &&
+                    newValueCounts[col-1] * 2 > DICTIONARY_SAMPLE_SIZE)
+                        decodeColumn(col);
+        }
+
+        private void decodeColumn(int col) {
+                int[] codes = codeColumns[col-1];
+                Object[] column = new Object[codes.length];
+                for (int i=0; i<codes.length; i++) {
+                        if (codes[i] != 0) column[i] = dictionary.decode(codes[i] - 1);
+                }
+                if (col > columns.length)
+                        columns = Arrays.copyOf(columns, Math.max(col, columns.length * 2));
+                columns[col-1] = column;
+                codeColumns[col-1] = null;
+                if (spill != null) spillColumn(col);
+        }
+
+        private void setCode(int row, int col, int code) {
+                int[] codes = codeColumns[col-1];
+                if (codes == null) {
+                        if (row > rowCapacity) rowCapacity = grow(rowCapacity, row);
+                        codes = new int[rowCapacity];
+                        codeColumns[col-1] = codes;
+                } else if (row > codes.length) {
+                        if (row > rowCapacity) rowCapacity = grow(rowCapacity, row);
+                        codes = Arrays.copyOf(codes, rowCapacity);
+                        codeColumns[col-1] = codes;
+                }
+
+                codes[row-1] = code;
+                rowsWithValues.set(row);
+        }
+
+        private static int grow(int capacity, int needed) {
+                long newCapacity = Math.max((long)needed, capacity + (capacity >> 1) + 1L);
+                return (int)Math.min(Integer.MAX_VALUE - 8, newCapacity);
         }
 
         public void setColumnName(int index, String name) {
+                checkMutable();
                 if (index > cols) cols = index;
                 checkCols(index);
 
                 if (colHeaders == null)
-                        colHeaders = new Hashtable<Integer,String>();
-                colHeaders.put(index, name);
+                        colHeaders = new String[cols];
+                else if (index > colHeaders.length)
+                        colHeaders = Arrays.copyOf(colHeaders, Math.max(index, colHeaders.length * 2));
+                String oldName = colHeaders[index-1];
+                colHeaders[index-1] = name;
+                updateColumnNumbers(index, oldName, name);
+        }
+
+        // with duplicate names, the index points to the first column
+        private void updateColumnNumbers(int index, String oldName, String name) {
+                if (colNumbers == null) colNumbers = new HashMap<String,Integer>();
+                if (oldName != null && !oldName.equals(name) &&
+                    Integer.valueOf(index).equals(colNumbers.get(oldName))) {
+                        colNumbers.remove(oldName);
+                        for (int i=index+1; i<=colHeaders.length; i++) {
+                                if (oldName.equals(colHeaders[i-1])) {
+                                        colNumbers.put(oldName, i);
+                                        break;
+                                }
+                        }
+                }
+                if (name == null) return;
+                Integer current = colNumbers.get(name);
+                if (current == null || current > index) colNumbers.put(name, index);
         }
 
         public void setRowName(int index, String name) {
+                checkMutable();
                 checkRows(index);
 
                 if (rowHeaders == null)
-                        rowHeaders = new Hashtable<Integer,String>();
-                rowHeaders.put(index, name);
+                        rowHeaders = new String[rows];
+                else if (index > rowHeaders.length)
+                        rowHeaders = Arrays.copyOf(rowHeaders, grow(rowHeaders.length, index));
+                rowHeaders[index-1] = name;
         }
 
         public void setSize(int row, int col) {
+                checkMutable();
                 this.rows = row;
                 this.cols = col;
+                if (row > rowCapacity) rowCapacity = row;
         }
 
         public void set(int row, String col, String value) {
@@ -185,42 +531,268 @@ public class StringMatrix {
                 return getColumn(colNo);
         }
 
+        // cells without a value are left out
+        public RowIndex indexBy(int col) {
+                checkCols(col);
+                return new RowIndex(rows, row -> get(row, col));
+        }
+
+        public RowIndex indexBy(String col) {
+                return indexBy(getColumnNumber(col));
+        }
+
+        public RowIndex groupBy(String... cols) {
+                if (cols.length == 1) return indexBy(cols[0]);
+                int[] colNumbers = new int[cols.length];
+                for (int i=0; i<cols.length; i++) colNumbers[i] = getColumnNumber(cols[i]);
+                return groupBy(row -> {
+                        StringBuilder key = new StringBuilder();
+                        for (int col : colNumbers) {
+                                String value = get(row, col);
+                                if (value == null) return null;
+                                key.append(value).append('\u0000');
+                        }
+                        return key.toString();
+                });
+        }
+
+        public RowIndex groupBy(IntFunction<String> keyOfRow) {
+                return new RowIndex(rows, keyOfRow);
+        }
+
+        // the other matrix is indexed, so preferably pass the smaller one as other;
+        // the result drops the join column of the other matrix
+        public StringMatrix hashJoin(String col, StringMatrix other, String otherCol) {
+                int joinCol = getColumnNumber(col);
+                int otherJoinCol = other.getColumnNumber(otherCol);
+                RowIndex index = other.indexBy(otherJoinCol);
+                int otherCols = other.getColumnCount();
+
+                StringMatrix joined = new StringMatrix(rows);
+                if (spillRows > 0 || spillBytes > 0)
+                        joined.setSpillThreshold(spillRows, spillBytes);
+                joined.setSize(0, cols + otherCols - 1);
+                if (hasColHeader() || other.hasColHeader()) {
+                        for (int c=1; c<=cols; c++) joined.setColumnName(c, getColumnName(c));
+                        for (int c=1, target=cols+1; c<=otherCols; c++) {
+                                if (c != otherJoinCol) joined.setColumnName(target++, other.getColumnName(c));
+                        }
+                }
+                int joinedRow = 0;
+                for (int row=1; row<=rows; row++) {
+                        String key = get(row, joinCol);
+                        if (key == null) continue;
+                        RowIndex.Rows otherRows = index.getRows(key);
+                        for (int i=0; i<otherRows.size(); i++) {
+                                int otherRow = otherRows.get(i);
+                                joinedRow++;
+                                for (int c=1; c<=cols; c++) {
+                                        Object value = getValue(row, c);
+                                        if (value != null) joined.setValue(joinedRow, c, value);
+                                }
+                                for (int c=1, target=cols+1; c<=otherCols; c++) {
+                                        if (c == otherJoinCol) continue;
+                                        Object value = other.getValue(otherRow, c);
+                                        if (value != null) joined.setValue(joinedRow, target, value);
+                                        target++;
+                                }
+                        }
+                }
+                return joined;
+        }
+
         public String toString() {
-                StringBuffer buffer = new StringBuffer();
-                buffer.append('[');
+                return render(RenderOptions.FULL);
+        }
+
+        public String render(RenderOptions options) {
+                StringBuilder buffer = new StringBuilder();
+                try {
+                        writeTo(buffer, options);
+                } catch (IOException exception) {
+                        throw new IllegalStateException("Cannot happen for a StringBuilder", exception);
+                }
+                return buffer.toString();
+        }
+
+        public TableDetails renderer(RenderOptions options) {
+                return new TableDetails(this, options);
+        }
+
+        // rows beyond the limits are not written, but reported as "+N more rows"
+        public void writeTo(Appendable output, RenderOptions options) throws IOException {
+                writeTo(output, options, getRowCount());
+        }
+
+        // rowCount can be larger than the number of rows, to report rows that are not in this matrix
+        void writeTo(Appendable output, RenderOptions options, int rowCount) throws IOException {
+                CountingAppendable out = new CountingAppendable(output);
+                int maxRows = getRowCount();
+                if (options.getMaxRows() > 0) maxRows = Math.min(maxRows, options.getMaxRows());
+                switch (options.getFormat()) {
+                case TSV:
+                        writeTSV(out, maxRows, options.getMaxChars(), rowCount);
+                        break;
+                case JSON:
+                        writeJSON(out, maxRows, options.getMaxChars(), rowCount);
+                        break;
+                default:
+                        writeText(out, maxRows, options.getMaxChars(), rowCount);
+                }
+        }
+
+        private static boolean full(CountingAppendable out, long maxChars) {
+                return maxChars > 0 && out.count >= maxChars;
+        }
+
+        private void writeText(CountingAppendable out, int maxRows, long maxChars, int rowCount) throws IOException {
+                out.append('[');
                 if (hasColHeader()) {
-                        buffer.append("[");
+                        out.append("[");
                         for (int col=1; col<=getColumnCount(); col++) {
-                                buffer.append('"');
+                                out.append('"');
                                 String result = getColumnName(col);
-                                buffer.append(result == null ? "" : result);
-                                buffer.append('"');
-                                if (col<getColumnCount()) buffer.append(',');
+                                out.append(result == null ? "" : result);
+                                out.append('"');
+                                if (col<getColumnCount()) out.append(',');
                         }
-                        buffer.append("],\n");
+                        out.append("],\n");
                 }
-                for (int row=1; row<=getRowCount(); row++) {
+                int row = 1;
+                for (; row<=maxRows && !full(out, maxChars); row++) {
                         if (hasRowHeader()) {
-                                buffer.append('"');
+                                out.append('"');
                                 String result = getRowName(row);
-                                buffer.append(result == null ? "" : result);
-                                buffer.append("\": ");
+                                out.append(result == null ? "" : result);
+                                out.append("\": ");
                         }
-                        buffer.append('[');
+                        out.append('[');
                         for (int col=1; col<=getColumnCount(); col++) {
-                                buffer.append('"');
+                                out.append('"');
                                 String result = get(row,col);
-                                buffer.append(result == null ? "" : result);
-                                buffer.append('"');
-                                if (col<getColumnCount()) buffer.append(',');
+                                out.append(result == null ? "" : result);
+                                out.append('"');
+                                if (col<getColumnCount()) out.append(',');
                         }
-                        buffer.append(']');
-                        if (row<getRowCount()) buffer.append(',');
-                        buffer.append('\n');
+                        out.append(']');
+                        if (row<rowCount) out.append(',');
+                        out.append('\n');
+                }
+                int moreRows = rowCount - (row - 1);
+                if (moreRows > 0) out.append("... +" + moreRows + " more rows\n");
+                out.append(']');
+                out.append('\n');
+        }
+
+        private void writeTSV(CountingAppendable out, int maxRows, long maxChars, int rowCount) throws IOException {
+                if (hasColHeader()) {
+                        for (int col=1; col<=getColumnCount(); col++) {
+                                if (col > 1) out.append('\t');
+                                appendTSV(out, getColumnName(col));
+                        }
+                        out.append('\n');
+                }
+                int row = 1;
+                for (; row<=maxRows && !full(out, maxChars); row++) {
+                        for (int col=1; col<=getColumnCount(); col++) {
+                                if (col > 1) out.append('\t');
+                                appendTSV(out, get(row,col));
+                        }
+                        out.append('\n');
+                }
+                int moreRows = rowCount - (row - 1);
+                if (moreRows > 0) out.append("# +" + moreRows + " more rows\n");
+        }
+
+        private static void appendTSV(Appendable out, String value) throws IOException {
+                if (value == null) return;
+                for (int i=0; i<value.length(); i++) {
+                        char c = value.charAt(i);
+                        switch (c) {
+                        case '\t': out.append("\\t"); break;
+                        case '\n': out.append("\\n"); break;
+                        case '\r': out.append("\\r"); break;
+                        case '\\': out.append("\\\\"); break;
+                        default: out.append(c);
+                        }
+                }
+        }
+
+        private void writeJSON(CountingAppendable out, int maxRows, long maxChars, int rowCount) throws IOException {
+                out.append('{');
+                if (hasColHeader()) {
+                        out.append("\"columns\":[");
+                        for (int col=1; col<=getColumnCount(); col++) {
+                                if (col > 1) out.append(',');
+                                appendJSON(out, getColumnName(col));
+                        }
+                        out.append("],");
+                }
+                out.append("\"rows\":[");
+                int row = 1;
+                for (; row<=maxRows && !full(out, maxChars); row++) {
+                        if (row > 1) out.append(',');
+                        out.append("\n[");
+                        for (int col=1; col<=getColumnCount(); col++) {
+                                if (col > 1) out.append(',');
+                                appendJSON(out, get(row,col));
+                        }
+                        out.append(']');
+                }
+                out.append("\n]");
+                int moreRows = rowCount - (row - 1);
+                if (moreRows > 0) out.append(",\"moreRows\":" + moreRows);
+                out.append("}\n");
+        }
+
+        private static void appendJSON(Appendable out, String value) throws IOException {
+                if (value == null) {
+                        out.append("null");
+                        return;
+                }
+                out.append('"');
+                for (int i=0; i<value.length(); i++) {
+                        char c = value.charAt(i);
+                        switch (c) {
+                        case '"': out.append("\\\""); break;
+                        case '\\': out.append("\\\\"); break;
+                        case '\n': out.append("\\n"); break;
+                        case '\r': out.append("\\r"); break;
+                        case '\t': out.append("\\t"); break;
+                        default:
+                                if (c < 0x20) out.append(String.format("\\u%04x", (int)c));
+                                else out.append(c);
+                        }
+                }
+                out.append('"');
+        }
+
+        private static class CountingAppendable implements Appendable {
+
+                private final Appendable out;
+                private long count = 0;
+
+                CountingAppendable(Appendable out) {
+                        this.out = out;
+                }
+
+                public Appendable append(CharSequence csq) throws IOException {
+                        count += csq.length();
+                        out.append(csq);
+                        return this;
+                }
+
+                public Appendable append(CharSequence csq, int start, int end) throws IOException {
+                        count += end - start;
+                        out.append(csq, start, end);
+                        return this;
+                }
+
+                public Appendable append(char c) throws IOException {
+                        count++;
+                        out.append(c);
+                        return this;
                 }
-                buffer.append(']');
-                buffer.append('\n');
-                return buffer.toString();
         }
 
         public List<String> getColumnNames() {
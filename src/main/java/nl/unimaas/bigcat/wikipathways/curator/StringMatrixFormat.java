@@ -0,0 +1,363 @@
+/* Copyright (C) 2026  Egon Willighagen <egon.willighagen@gmail.com>
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   - Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package nl.unimaas.bigcat.wikipathways.curator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// header: "SMTX", int version, int rows, int columns, byte flags (1 column names,
+// 2 row names), byte compression (0 none, 1 Deflate); then the name blocks and one block per
+// column, each framed as two ints (length before and after compression). Strings are a varint
+// of UTF-8 length plus one (0 for null) and the bytes. Column blocks start with 0 for plain or
+// 1 for a dictionary (varint count, values, varint index plus one per row). Values are stored
+// as get() returns them, so typed literals come back as their converted string.
+public final class StringMatrixFormat {
+
+	public enum Compression { NONE, DEFLATE }
+
+	public static final int FORMAT_VERSION = 1;
+
+	private static final byte[] MAGIC = { 'S', 'M', 'T', 'X' };
+	private static final int HEADER_LENGTH = 18;
+	private static final int COLUMN_NAMES = 1;
+	private static final int ROW_NAMES = 2;
+	private static final byte PLAIN = 0;
+	private static final byte DICTIONARY = 1;
+
+	private StringMatrixFormat() {}
+
+	// the stream is not closed
+	public static void write(StringMatrix table, OutputStream output, Compression compression) throws IOException {
+		DataOutputStream out = new DataOutputStream(output);
+		int rows = table.getRowCount();
+		int cols = table.getColumnCount();
+		out.write(MAGIC);
+		out.writeInt(FORMAT_VERSION);
+		out.writeInt(rows);
+		out.writeInt(cols);
+		out.writeByte((table.hasColHeader() ? COLUMN_NAMES : 0) | (table.hasRowHeader() ? ROW_NAMES : 0));
+		out.writeByte(compression.ordinal());
+
+		ByteArrayOutputStream block = new ByteArrayOutputStream();
+		if (table.hasColHeader()) {
+			for (int col=1; col<=cols; col++) writeString(block, table.getColumnName(col));
+			writeBlock(out, block, compression);
+		}
+		if (table.hasRowHeader()) {
+			for (int row=1; row<=rows; row++) writeString(block, table.getRowName(row));
+			writeBlock(out, block, compression);
+		}
+		for (int col=1; col<=cols; col++) {
+			writeColumn(block, table, col);
+			writeBlock(out, block, compression);
+		}
+		out.flush();
+	}
+
+	private static void writeColumn(ByteArrayOutputStream block, StringMatrix table, int col) {
+		int rows = table.getRowCount();
+		Map<String,Integer> indices = new HashMap<String,Integer>();
+		List<String> values = new ArrayList<String>();
+		for (int row=1; row<=rows && values.size() * 2 <= rows; row++) {
+			String value = table.get(row, col);
+			if (value != null && !indices.containsKey(value)) {
+				indices.put(value, values.size());
+				values.add(value);
+			}
+		}
+		if (rows == 0 || values.size() * 2 > rows) {
+			block.write(PLAIN);
+			for (int row=1; row<=rows; row++) writeString(block, table.get(row, col));
+			return;
+		}
+		block.write(DICTIONARY);
+		writeVarInt(block, values.size());
+		for (String value : values) writeString(block, value);
+		for (int row=1; row<=rows; row++) {
+			String value = table.get(row, col);
+			writeVarInt(block, value == null ? 0 : indices.get(value) + 1);
+		}
+	}
+
+	private static void writeBlock(DataOutputStream out, ByteArrayOutputStream block, Compression compression)
+			throws IOException {
+		byte[] raw = block.toByteArray();
+		block.reset();
+		if (compression == Compression.DEFLATE) {
+			Deflater deflater = new Deflater();
+			try {
+				deflater.setInput(raw);
+				deflater.finish();
+				ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+				byte[] buffer = new byte[65536];
+				while (!deflater.finished()) {
+					int length = deflater.deflate(buffer);
+					compressed.write(buffer, 0, length);
+				}
+				out.writeInt(raw.length);
+				out.writeInt(compressed.size());
+				compressed.writeTo(out);
+			} finally {
+				deflater.end();
+			}
+		} else {
+			out.writeInt(raw.length);
+			out.writeInt(raw.length);
+			out.write(raw);
+		}
+	}
+
+	public static StringMatrix read(InputStream input) throws IOException {
+		return read(input, StringMatrix::new);
+	}
+
+	public static StringMatrix read(InputStream input, IntFunction<StringMatrix> tableFactory) throws IOException {
+		DataInputStream in = new DataInputStream(input);
+		byte[] header = new byte[HEADER_LENGTH];
+		in.readFully(header);
+		return read(ByteBuffer.wrap(header), () -> {
+			int rawLength = in.readInt();
+			byte[] stored = new byte[in.readInt()];
+			in.readFully(stored);
+			return new Block(rawLength, ByteBuffer.wrap(stored));
+		}, tableFactory);
+	}
+
+	// memory-mapped
+	public static StringMatrix read(File file) throws IOException {
+		return read(file, StringMatrix::new);
+	}
+
+	public static StringMatrix read(File file, IntFunction<StringMatrix> tableFactory) throws IOException {
+		return read(file, tableFactory, SpillFile.SEGMENT_SIZE);
+	}
+
+	static StringMatrix read(File file, IntFunction<StringMatrix> tableFactory, int windowSize) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+			MappedWindows windows = new MappedWindows(raf.getChannel(), windowSize);
+			ByteBuffer header = windows.next(HEADER_LENGTH);
+			return read(header, () -> {
+				ByteBuffer frame = windows.next(8);
+				int rawLength = frame.getInt();
+				return new Block(rawLength, windows.next(frame.getInt()));
+			}, tableFactory);
+		}
+	}
+
+	// maps the file once per window, like SpillFile, instead of once per frame and block;
+	// a block that does not fit in a window is mapped on its own
+	private static class MappedWindows {
+		private final FileChannel channel;
+		private final long size;
+		private final int windowSize;
+		private ByteBuffer window = null;
+		private long windowStart = 0;
+		private long position = 0;
+
+		MappedWindows(FileChannel channel, int windowSize) throws IOException {
+			this.channel = channel;
+			this.size = channel.size();
+			this.windowSize = windowSize;
+		}
+
+		ByteBuffer next(int length) throws IOException {
+			if (length < 0 || position + length > size) throw new EOFException("Truncated table");
+			ByteBuffer buffer;
+			if (length > windowSize) {
+				buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+			} else {
+				if (window == null || position + length > windowStart + window.capacity()) {
+					windowStart = position;
+					window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(windowSize, size - position));
+				}
+				buffer = window.duplicate();
+				buffer.position((int)(position - windowStart));
+				buffer.limit(buffer.position() + length);
+				buffer = buffer.slice();
+			}
+			position += length;
+			return buffer;
+		}
+	}
+
+	private static class Block {
+		final int rawLength;
+		final ByteBuffer stored;
+
+		Block(int rawLength, ByteBuffer stored) {
+			this.rawLength = rawLength;
+			this.stored = stored;
+		}
+	}
+
+	private interface BlockSource {
+		Block next() throws IOException;
+	}
+
+	private static StringMatrix read(ByteBuffer header, BlockSource blocks, IntFunction<StringMatrix> tableFactory)
+			throws IOException {
+		for (byte b : MAGIC) {
+			if (header.get() != b) throw new IOException("Not a StringMatrix file");
+		}
+		int version = header.getInt();
+		if (version != FORMAT_VERSION) throw new IOException("Unsupported format version: " + version);
+		int rows = header.getInt();
+		int cols = header.getInt();
+		int flags = header.get();
+		int compressionCode = header.get();
+		if (rows < 0 || cols < 0 || compressionCode < 0 || compressionCode >= Compression.values().length)
+			throw new IOException("Corrupt table header");
+		Compression compression = Compression.values()[compressionCode];
+
+		StringMatrix table = tableFactory.apply(rows);
+		try {
+			readContent(table, rows, cols, flags, compression, blocks);
+		} catch (IOException | RuntimeException exception) {
+			table.release();
+			throw exception;
+		}
+		return table;
+	}
+
+	private static void readContent(StringMatrix table, int rows, int cols, int flags, Compression compression,
+			BlockSource blocks) throws IOException {
+		table.setSize(rows, cols);
+		byte[] bytes = new byte[256];
+		if ((flags & COLUMN_NAMES) != 0) {
+			ByteBuffer block = decompress(blocks.next(), compression);
+			for (int col=1; col<=cols; col++) table.setColumnName(col, readString(block, bytes));
+		}
+		if ((flags & ROW_NAMES) != 0) {
+			ByteBuffer block = decompress(blocks.next(), compression);
+			for (int row=1; row<=rows; row++) table.setRowName(row, readString(block, bytes));
+		}
+		for (int col=1; col<=cols; col++) {
+			ByteBuffer block = decompress(blocks.next(), compression);
+			byte encoding = block.get();
+			if (encoding == PLAIN) {
+				for (int row=1; row<=rows; row++) {
+					String value = readString(block, bytes);
+					if (value != null) table.set(row, col, value);
+				}
+			} else if (encoding == DICTIONARY) {
+				String[] values = new String[readVarInt(block)];
+				for (int i=0; i<values.length; i++) values[i] = readString(block, bytes);
+				for (int row=1; row<=rows; row++) {
+					int index = readVarInt(block);
+					if (index != 0) table.set(row, col, values[index-1]);
+				}
+			} else {
+				throw new IOException("Unknown column encoding: " + encoding);
+			}
+		}
+	}
+
+	private static ByteBuffer decompress(Block block, Compression compression) throws IOException {
+		if (compression == Compression.NONE) return block.stored;
+		byte[] stored = new byte[block.stored.remaining()];
+		block.stored.get(stored);
+		byte[] raw = new byte[block.rawLength];
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(stored);
+			int length = 0;
+			while (length < raw.length) {
+				int inflated = inflater.inflate(raw, length, raw.length - length);
+				if (inflated == 0 && (inflater.finished() || inflater.needsInput()))
+					throw new EOFException("Truncated block");
+				length += inflated;
+			}
+		} catch (DataFormatException exception) {
+			throw new IOException("Corrupt block: " + exception.getMessage(), exception);
+		} finally {
+			inflater.end();
+		}
+		return ByteBuffer.wrap(raw);
+	}
+
+	private static void writeString(ByteArrayOutputStream out, String value) {
+		if (value == null) {
+			writeVarInt(out, 0);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(out, bytes.length + 1);
+		out.write(bytes, 0, bytes.length);
+	}
+
+	private static String readString(ByteBuffer in, byte[] buffer) throws IOException {
+		int length = readVarInt(in) - 1;
+		if (length == -1) return null;
+		if (length > in.remaining()) throw new EOFException("Truncated string");
+		if (in.hasArray()) {
+			String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+			in.position(in.position() + length);
+			return value;
+		}
+		byte[] bytes = length <= buffer.length ? buffer : new byte[length];
+		in.get(bytes, 0, length);
+		return new String(bytes, 0, length, StandardCharsets.UTF_8);
+	}
+
+	private static void writeVarInt(ByteArrayOutputStream out, int value) {
+		while ((value & ~0x7F) != 0) {
+			out.write((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.write(value);
+	}
+
+	private static int readVarInt(ByteBuffer in) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			if (!in.hasRemaining()) throw new EOFException("Truncated block");
+			byte b = in.get();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) return value;
+		}
+		throw new IOException("Malformed varint");
+	}
+
+}
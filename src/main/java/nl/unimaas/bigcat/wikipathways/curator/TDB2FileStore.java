@@ -0,0 +1,95 @@
+/* Copyright (C) 2026  Egon Willighagen <egon.willighagen@gmail.com>
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   - Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package nl.unimaas.bigcat.wikipathways.curator;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+import org.apache.jena.tdb2.TDB2Factory;
+
+// one named graph per file, with the manifest in the store folder, so a next run only
+// parses the files that were added or changed
+public class TDB2FileStore extends FileGraphStore {
+
+	public static final String MANIFEST_FILE = "manifest.properties";
+
+	private final File directory;
+
+	public TDB2FileStore(File directory) {
+		super(TDB2Factory.connectDataset(directory.getAbsolutePath()));
+		this.directory = directory;
+	}
+
+	public static TDB2FileStore fromSystemProperties() {
+		String folder = System.getProperty("OPSWPRDF_TDB2");
+		if (folder == null || folder.trim().isEmpty() || folder.startsWith("${")) return null;
+		return new TDB2FileStore(new File(folder.trim()));
+	}
+
+	public File getDirectory() {
+		return this.directory;
+	}
+
+	@Override
+	protected Properties readManifest() throws IOException {
+		Properties manifest = new Properties();
+		File file = new File(directory, MANIFEST_FILE);
+		if (file.exists()) {
+			try (InputStream in = new FileInputStream(file)) {
+				manifest.load(in);
+			}
+		}
+		return manifest;
+	}
+
+	@Override
+	protected void writeManifest(Properties manifest) throws IOException {
+		File tmpFile = File.createTempFile("manifest", ".tmp", directory);
+		try {
+			try (OutputStream out = new FileOutputStream(tmpFile)) {
+				manifest.store(out, "WPRDF files in this TDB2 store");
+			}
+			Files.move(tmpFile.toPath(), new File(directory, MANIFEST_FILE).toPath(),
+				StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			tmpFile.delete();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "TDB2FileStore[" + directory + "]";
+	}
+
+}
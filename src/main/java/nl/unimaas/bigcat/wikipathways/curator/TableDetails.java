@@ -0,0 +1,151 @@
+/* Copyright (C) 2026  Egon Willighagen <egon.willighagen@gmail.com>
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   - Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package nl.unimaas.bigcat.wikipathways.curator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+// the rows of a table that the details of an assertion show, so that reports can be merged row by row;
+// the table is read when the details are first needed, and only the rows shown are kept after that
+public class TableDetails implements Supplier<String> {
+
+	private final RenderOptions options;
+	private StringMatrix table;
+	private List<String> columnNames;
+	private List<List<String>> rows;
+	private int rowCount;
+
+	TableDetails(StringMatrix table, RenderOptions options) {
+		this.table = table;
+		this.options = options;
+	}
+
+	private TableDetails(RenderOptions options, List<String> columnNames, List<List<String>> rows, int rowCount) {
+		this.options = options;
+		this.columnNames = columnNames;
+		this.rows = rows;
+		this.rowCount = rowCount;
+	}
+
+	// row names are not kept
+	private synchronized void read() {
+		if (table == null) return;
+		columnNames = table.hasColHeader() ? table.getColumnNames() : null;
+		int shown = table.getRowCount();
+		if (options.getMaxRows() > 0) shown = Math.min(shown, options.getMaxRows());
+		rows = new ArrayList<>(shown);
+		for (int row=1; row<=shown; row++) {
+			List<String> cells = new ArrayList<>(table.getColumnCount());
+			for (int col=1; col<=table.getColumnCount(); col++) cells.add(table.get(row, col));
+			rows.add(cells);
+		}
+		rowCount = table.getRowCount();
+		table = null;
+	}
+
+	// null if the table has no column names
+	public List<String> getColumnNames() {
+		read();
+		return columnNames == null ? null : Collections.unmodifiableList(columnNames);
+	}
+
+	// the rows shown, which can be fewer than the rows of the table
+	public List<List<String>> getRows() {
+		read();
+		return Collections.unmodifiableList(rows);
+	}
+
+	public int getRowCount() {
+		read();
+		return rowCount;
+	}
+
+	public String get() {
+		read();
+		StringMatrix shown = new StringMatrix(rows.size());
+		int cols = columnNames != null ? columnNames.size() : (rows.isEmpty() ? 0 : rows.get(0).size());
+		shown.setSize(rows.size(), cols);
+		if (columnNames != null) {
+			for (int col=1; col<=cols; col++) shown.setColumnName(col, columnNames.get(col-1));
+		}
+		for (int row=1; row<=rows.size(); row++) {
+			List<String> cells = rows.get(row-1);
+			for (int col=1; col<=cells.size(); col++) {
+				if (cells.get(col-1) != null) shown.set(row, col, cells.get(col-1));
+			}
+		}
+		StringBuilder buffer = new StringBuilder();
+		try {
+			shown.writeTo(buffer, options, rowCount);
+		} catch (IOException exception) {
+			throw new IllegalStateException("Cannot happen for a StringBuilder", exception);
+		}
+		return buffer.toString();
+	}
+
+	// the rows of before are those of the changed files in this table, and are replaced by those of after;
+	// new rows go where the first replaced row was shown, or after the rows shown
+	// null for before or after means no rows
+	public TableDetails merge(TableDetails before, TableDetails after) {
+		read();
+		if (before == null) before = new TableDetails(options, null, Collections.emptyList(), 0);
+		if (after == null) after = new TableDetails(options, null, Collections.emptyList(), 0);
+		Set<List<String>> replaced = new HashSet<>(before.getRows());
+		List<List<String>> merged = new ArrayList<>();
+		int insertAt = -1;
+		int replacedShown = 0;
+		for (List<String> row : rows) {
+			if (replaced.contains(row)) {
+				if (insertAt < 0) insertAt = merged.size();
+				replacedShown++;
+			} else {
+				merged.add(row);
+			}
+		}
+		merged.addAll(insertAt < 0 ? merged.size() : insertAt, after.getRows());
+		// the rows of before that were not shown, were counted in the rows not shown
+		int hidden = Math.max(0, rowCount - rows.size() - (before.getRowCount() - replacedShown)) +
+			after.getRowCount() - after.getRows().size();
+		if (options.getMaxRows() > 0 && merged.size() > options.getMaxRows()) {
+			hidden += merged.size() - options.getMaxRows();
+			merged = new ArrayList<>(merged.subList(0, options.getMaxRows()));
+		}
+		List<String> names = columnNames != null ? columnNames : after.getColumnNames();
+		return new TableDetails(options, names, merged, merged.size() + hidden);
+	}
+
+	@Override
+	public String toString() {
+		return "TableDetails[" + getRowCount() + " rows]";
+	}
+
+}
@@ -0,0 +1,256 @@
+/* Copyright (C) 2026  Egon Willighagen <egon.willighagen@gmail.com>
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   - Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package nl.unimaas.bigcat.wikipathways.curator;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.query.QueryParseException;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFWrapper;
+import org.apache.jena.sparql.algebra.Algebra;
+import org.apache.jena.sparql.algebra.Op;
+import org.apache.jena.sparql.algebra.OpVisitorBase;
+import org.apache.jena.sparql.algebra.op.OpBGP;
+import org.apache.jena.sparql.algebra.op.OpPath;
+import org.apache.jena.sparql.algebra.op.OpQuadPattern;
+import org.apache.jena.sparql.algebra.op.OpTriple;
+import org.apache.jena.sparql.algebra.walker.Walker;
+import org.apache.jena.sparql.path.P_Link;
+import org.apache.jena.sparql.path.P_Path1;
+import org.apache.jena.sparql.path.P_Path2;
+import org.apache.jena.sparql.path.P_ReverseLink;
+import org.apache.jena.sparql.path.Path;
+import org.apache.jena.vocabulary.RDF;
+
+// opt-in with OPSWPRDF_FILTER=true, because checks with inline SPARQL, rather than a .rq
+// resource, may query predicates the filter drops
+public class TripleFilter {
+
+	private final Set<Node> predicates = new HashSet<>();
+	private final Set<Node> types; // null when all types are kept
+	private final String fingerprint;
+
+	// types null keeps all rdf:type triples
+	public TripleFilter(Collection<String> predicates, Collection<String> types) {
+		for (String predicate : predicates) this.predicates.add(NodeFactory.createURI(predicate));
+		if (types == null) {
+			this.types = null;
+		} else {
+			this.types = new HashSet<>();
+			for (String type : types) this.types.add(NodeFactory.createURI(type));
+		}
+		this.fingerprint = DatasetFingerprint.hash(new TreeSet<>(predicates) + "\n" +
+			(types == null ? "*" : new TreeSet<>(types).toString()));
+	}
+
+	public static TripleFilter fromSystemProperties() throws IOException {
+		String enabled = System.getProperty("OPSWPRDF_FILTER");
+		if (enabled == null || enabled.startsWith("${") || !"true".equalsIgnoreCase(enabled.trim())) return null;
+		List<String> predicates = listFromProperty("OPSWPRDF_PREDICATES");
+		List<String> types = listFromProperty("OPSWPRDF_TYPES");
+		if (predicates == null) {
+			TripleFilter derived = fromQueryResources();
+			if (derived == null || types == null) return derived;
+			predicates = new ArrayList<>();
+			for (Node predicate : derived.predicates) predicates.add(predicate.getURI());
+		}
+		return new TripleFilter(predicates, types);
+	}
+
+	private static List<String> listFromProperty(String name) {
+		String value = System.getProperty(name);
+		if (value == null || value.trim().isEmpty() || value.startsWith("${")) return null;
+		List<String> iris = new ArrayList<>();
+		for (String iri : value.split("[,\\s]+")) if (!iri.isEmpty()) iris.add(iri);
+		return iris;
+	}
+
+	// null if a query has a variable predicate; statistics queries are only for endpoints
+	public static TripleFilter fromQueryResources() throws IOException {
+		List<String> queries = new ArrayList<>();
+		for (String resource : queryResources()) {
+			if (!resource.startsWith("statistics/")) queries.add(ResourceHelper.resourceAsString(resource));
+		}
+		return fromQueries(queries);
+	}
+
+	// queries Jena cannot parse are skipped, as they cannot run on the loaded data anyway
+	public static TripleFilter fromQueries(Collection<String> queries) {
+		Set<String> predicates = new TreeSet<>();
+		Set<String> types = new TreeSet<>();
+		boolean allTypes = false;
+		for (String queryString : queries) {
+			Query query;
+			try {
+				query = QueryFactory.create(queryString);
+			} catch (QueryParseException exception) {
+				continue;
+			}
+			if (query.getQueryPattern() == null) continue;
+			PatternCollector collector = new PatternCollector();
+			Walker.walk(Algebra.compile(query), collector);
+			if (collector.variablePredicate) return null;
+			predicates.addAll(collector.predicates);
+			types.addAll(collector.types);
+			allTypes |= collector.variableType;
+		}
+		return new TripleFilter(predicates, allTypes ? null : types);
+	}
+
+	// also inside FILTER EXISTS and subqueries
+	private static class PatternCollector extends OpVisitorBase {
+		final Set<String> predicates = new HashSet<>();
+		final Set<String> types = new HashSet<>();
+		boolean variablePredicate = false;
+		boolean variableType = false;
+
+		@Override
+		public void visit(OpBGP opBGP) {
+			for (Triple triple : opBGP.getPattern()) pattern(triple);
+		}
+
+		@Override
+		public void visit(OpTriple opTriple) {
+			pattern(opTriple.getTriple());
+		}
+
+		@Override
+		public void visit(OpQuadPattern quadPattern) {
+			for (Triple triple : quadPattern.getBasicPattern()) pattern(triple);
+		}
+
+		@Override
+		public void visit(OpPath opPath) {
+			path(opPath.getTriplePath().getPath());
+		}
+
+		private void pattern(Triple triple) {
+			Node predicate = triple.getPredicate();
+			if (!predicate.isURI()) {
+				variablePredicate = true;
+				return;
+			}
+			predicates.add(predicate.getURI());
+			if (predicate.equals(RDF.type.asNode())) {
+				if (triple.getObject().isURI()) types.add(triple.getObject().getURI());
+				else variableType = true;
+			}
+		}
+
+		private void path(Path path) {
+			if (path instanceof P_Link) {
+				Node predicate = ((P_Link)path).getNode();
+				predicates.add(predicate.getURI());
+				// the type at the end of a path is not known
+				if (predicate.equals(RDF.type.asNode())) variableType = true;
+			} else if (path instanceof P_ReverseLink) {
+				predicates.add(((P_ReverseLink)path).getNode().getURI());
+			} else if (path instanceof P_Path1) {
+				path(((P_Path1)path).getSubPath());
+			} else if (path instanceof P_Path2) {
+				path(((P_Path2)path).getLeft());
+				path(((P_Path2)path).getRight());
+			} else {
+				variablePredicate = true; // like a negated property set
+			}
+		}
+	}
+
+	static List<String> queryResources() throws IOException {
+		File location;
+		try {
+			location = new File(ResourceHelper.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+		} catch (URISyntaxException | SecurityException exception) {
+			throw new IOException("Cannot find the resources", exception);
+		}
+		List<String> resources = new ArrayList<>();
+		if (location.isDirectory()) {
+			java.nio.file.Path root = location.toPath();
+			try (Stream<java.nio.file.Path> files = Files.walk(root)) {
+				resources.addAll(files.filter(file -> file.toString().endsWith(".rq"))
+					.map(file -> root.relativize(file).toString().replace(File.separatorChar, '/'))
+					.collect(Collectors.toList()));
+			}
+		} else {
+			try (JarFile jar = new JarFile(location)) {
+				Enumeration<JarEntry> entries = jar.entries();
+				while (entries.hasMoreElements()) {
+					String name = entries.nextElement().getName();
+					if (name.endsWith(".rq")) resources.add(name);
+				}
+			}
+		}
+		Collections.sort(resources);
+		return resources;
+	}
+
+	public boolean accept(Triple triple) {
+		Node predicate = triple.getPredicate();
+		if (!predicates.contains(predicate)) return false;
+		return types == null || !predicate.equals(RDF.type.asNode()) || types.contains(triple.getObject());
+	}
+
+	public StreamRDF wrap(StreamRDF sink) {
+		return new StreamRDFWrapper(sink) {
+			@Override
+			public void triple(Triple triple) {
+				if (accept(triple)) super.triple(triple);
+			}
+		};
+	}
+
+	public String getFingerprint() {
+		return this.fingerprint;
+	}
+
+	@Override
+	public String toString() {
+		return "TripleFilter[" + predicates.size() + " predicates, " +
+			(types == null ? "all" : types.size()) + " types]";
+	}
+
+}
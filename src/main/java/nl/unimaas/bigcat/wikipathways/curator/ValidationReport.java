@@ -0,0 +1,182 @@
+/* Copyright (C) 2026  Egon Willighagen <egon.willighagen@gmail.com>
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   - Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package nl.unimaas.bigcat.wikipathways.curator;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.apache.jena.rdf.model.Model;
+
+import nl.unimaas.bigcat.wikipathways.curator.assertions.AssertEquals;
+import nl.unimaas.bigcat.wikipathways.curator.assertions.IAssertion;
+import nl.unimaas.bigcat.wikipathways.curator.assertions.Test;
+
+// only assertions that count problems (expecting 0) are merged on revalidation; the others,
+// like minimum counts or duplicate titles, are about the whole dataset and kept from the full run
+public class ValidationReport {
+
+	public interface Check {
+		List<IAssertion> run(SPARQLHelper helper) throws Exception;
+	}
+
+	private final List<IAssertion> assertions;
+	private final String parseErrors;
+
+	public ValidationReport(List<IAssertion> assertions) {
+		this(assertions, "");
+	}
+
+	public ValidationReport(List<IAssertion> assertions, String parseErrors) {
+		this.assertions = Collections.unmodifiableList(new ArrayList<>(assertions));
+		this.parseErrors = parseErrors;
+	}
+
+	public static ValidationReport run(SPARQLHelper helper, List<Check> checks) throws Exception {
+		List<IAssertion> assertions = new ArrayList<>();
+		for (Check check : checks) assertions.addAll(check.run(helper));
+		return new ValidationReport(assertions);
+	}
+
+	public List<IAssertion> getAssertions() {
+		return this.assertions;
+	}
+
+	public String getParseErrors() {
+		return this.parseErrors;
+	}
+
+	public ValidationReport revalidate(FileGraphStore store, List<File> files, boolean hashContent,
+			List<Check> checks) throws Exception {
+		ValidationReport before = run(store.getModel(files), checks);
+		StringBuilder parseErrors = new StringBuilder();
+		for (File file : files) {
+			String error = store.replaceGraph(file, hashContent);
+			if (error != null) parseErrors.append(error);
+		}
+		ValidationReport after = run(store.getModel(files), checks);
+		ValidationReport merged = merge(before, after);
+		return new ValidationReport(merged.assertions, parseErrors.toString());
+	}
+
+	private static ValidationReport run(Model model, List<Check> checks) throws Exception {
+		try (SPARQLHelper helper = new SPARQLHelper(model)) {
+			return run(helper, checks);
+		}
+	}
+
+	public ValidationReport merge(ValidationReport before, ValidationReport after) {
+		Map<String,List<IAssertion>> beforeByTest = byTest(before);
+		Map<String,List<IAssertion>> afterByTest = byTest(after);
+		// assertions are matched by their position among those of the same test
+		Map<String,Integer> positions = new HashMap<>();
+		List<IAssertion> merged = new ArrayList<>();
+		for (IAssertion assertion : assertions) {
+			String key = key(assertion);
+			int position = positions.merge(key, 1, Integer::sum) - 1;
+			merged.add(merge(assertion, get(beforeByTest, key, position), get(afterByTest, key, position)));
+		}
+		return new ValidationReport(merged, parseErrors);
+	}
+
+	private static Map<String,List<IAssertion>> byTest(ValidationReport report) {
+		Map<String,List<IAssertion>> byTest = new HashMap<>();
+		for (IAssertion assertion : report.assertions)
+			byTest.computeIfAbsent(key(assertion), key -> new ArrayList<>()).add(assertion);
+		return byTest;
+	}
+
+	private static IAssertion get(Map<String,List<IAssertion>> byTest, String key, int position) {
+		List<IAssertion> assertions = byTest.get(key);
+		return (assertions != null && position < assertions.size()) ? assertions.get(position) : null;
+	}
+
+	private static String key(IAssertion assertion) {
+		return assertion.getTestClass() + "." + assertion.getTest();
+	}
+
+	private static IAssertion merge(IAssertion previous, IAssertion before, IAssertion after) {
+		if (!isProblemCount(previous) || !isProblemCount(before) || !isProblemCount(after)) return previous;
+		AssertEquals full = (AssertEquals)previous;
+		long change = ((Number)after.getValue()).longValue() - ((Number)before.getValue()).longValue();
+		long count = Math.max(0, ((Number)full.getValue()).longValue() + change);
+		Object value = (full.getValue() instanceof Integer) ? (Object)(int)count : (Object)count;
+		return new AssertEquals(new Test(full.getTestClass(), full.getTest()), full.hasLinkToDocs(),
+			full.getExpectedValue(), value, full.getMessage(),
+			mergeDetails(full, (AssertEquals)before, (AssertEquals)after));
+	}
+
+	// tables are merged by row, and other details by line, like those that list a problem per line
+	private static Supplier<String> mergeDetails(AssertEquals full, AssertEquals before, AssertEquals after) {
+		TableDetails table = full.getDetailsTable();
+		if (table != null) return table.merge(before.getDetailsTable(), after.getDetailsTable());
+		if (full.getDetails().isEmpty())
+			return after.getDetailsTable() != null ? after.getDetailsTable() : after::getDetails;
+		Set<String> afterLines = lines(after.getDetails());
+		Set<String> removed = lines(before.getDetails());
+		removed.removeAll(afterLines);
+		List<String> merged = new ArrayList<>();
+		int insertAt = -1;
+		for (String line : full.getDetails().split("\n")) {
+			if (line.isEmpty()) continue;
+			if (!removed.contains(line)) merged.add(line);
+			else if (insertAt < 0) insertAt = merged.size();
+		}
+		List<String> added = new ArrayList<>(afterLines);
+		added.removeAll(merged);
+		merged.addAll(insertAt < 0 ? merged.size() : insertAt, added);
+		String details = merged.isEmpty() ? "" : String.join("\n", merged) + "\n";
+		return () -> details;
+	}
+
+	private static Set<String> lines(String details) {
+		Set<String> lines = new LinkedHashSet<>();
+		for (String line : details.split("\n")) {
+			if (!line.isEmpty()) lines.add(line);
+		}
+		return lines;
+	}
+
+	private static boolean isProblemCount(IAssertion assertion) {
+		if (!(assertion instanceof AssertEquals)) return false;
+		Object expected = ((AssertEquals)assertion).getExpectedValue();
+		return expected instanceof Number && ((Number)expected).longValue() == 0 &&
+			assertion.getValue() instanceof Number;
+	}
+
+	@Override
+	public String toString() {
+		return "ValidationReport[" + assertions.size() + " assertions]";
+	}
+
+}
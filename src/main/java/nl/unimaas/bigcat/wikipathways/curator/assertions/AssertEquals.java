@@ -26,24 +26,40 @@
  */
 package nl.unimaas.bigcat.wikipathways.curator.assertions;
 
+import java.util.function.Supplier;
+
+import nl.unimaas.bigcat.wikipathways.curator.TableDetails;
+
 public class AssertEquals extends AbstractAssertion implements IAssertion {
 
 	private Object expectedValue;
 	private Object value;
-	private String details;
+	private Supplier<String> details; // dropped once rendered, so that it does not keep a table
+	private String renderedDetails = null;
+	private final TableDetails detailsTable;
 
 	public AssertEquals(Test test, boolean linkToDocs, Object expectedValue,
-			            Object value, String message, String details) {
+			            Object value, String message, Supplier<String> details) {
 		super(test, linkToDocs, message);
 		this.expectedValue = expectedValue;
 		this.value = value;
 		this.details = details;
+		this.detailsTable = (details instanceof TableDetails) ? (TableDetails)details : null;
+	}
+
+	public AssertEquals(Test test, boolean linkToDocs, Object expectedValue,
+			            Object value, String message, String details) {
+		this(test, linkToDocs, expectedValue, value, message, () -> details);
 	}
 
 	public AssertEquals(Test test, Object expectedValue, Object value, String message, String details) {
 		this(test, false, expectedValue, value, message, details);
 	}
 
+	public AssertEquals(Test test, Object expectedValue, Object value, String message, Supplier<String> details) {
+		this(test, false, expectedValue, value, message, details);
+	}
+
 	public AssertEquals(Test test, Object expectedValue, Object value, String message) {
 		this(test, expectedValue, value, message, "");
 	}
@@ -66,8 +82,17 @@ public class AssertEquals extends AbstractAssertion implements IAssertion {
 		return this.value;
 	}
 
-	public String getDetails() {
-		return this.details;
+	public synchronized String getDetails() {
+		if (details != null) {
+			renderedDetails = details.get();
+			details = null;
+		}
+		return renderedDetails;
+	}
+
+	// null if the details are not rows of a table; only the rows shown are kept once rendered
+	public TableDetails getDetailsTable() {
+		return this.detailsTable;
 	}
 
 }
@@ -26,17 +26,24 @@
  */
 package nl.unimaas.bigcat.wikipathways.curator.assertions;
 
+import java.util.function.Supplier;
+
 public class AssertTrue extends AbstractAssertion implements IAssertion {
 
 	private boolean isTrue;
-	private String details;
+	private Supplier<String> details; // dropped once rendered, so that it does not keep a table
+	private String renderedDetails = null;
 
-	public AssertTrue(Test test, boolean linkToDocs, boolean isTrue, String message, String details) {
+	public AssertTrue(Test test, boolean linkToDocs, boolean isTrue, String message, Supplier<String> details) {
 		super(test, linkToDocs, message);
 		this.isTrue = isTrue;
 		this.details = details;
 	}
 
+	public AssertTrue(Test test, boolean linkToDocs, boolean isTrue, String message, String details) {
+		this(test, linkToDocs, isTrue, message, () -> details);
+	}
+
 	public AssertTrue(Test test, boolean linkToDocs, boolean isTrue, String message) {
 		this(test, linkToDocs, isTrue, message, "");
 	}
@@ -45,6 +52,10 @@ public class AssertTrue extends AbstractAssertion implements IAssertion {
 		this(test, false, isTrue, message, details);
 	}
 
+	public AssertTrue(Test test, boolean isTrue, String message, Supplier<String> details) {
+		this(test, false, isTrue, message, details);
+	}
+
 	public AssertTrue(Test test, boolean isTrue, String message) {
 		this(test, false, isTrue, message);
 	}
@@ -63,8 +74,12 @@ public class AssertTrue extends AbstractAssertion implements IAssertion {
 		return isTrue;
 	}
 
-	public String getDetails() {
-		return this.details;
+	public synchronized String getDetails() {
+		if (details != null) {
+			renderedDetails = details.get();
+			details = null;
+		}
+		return renderedDetails;
 	}
 
 }
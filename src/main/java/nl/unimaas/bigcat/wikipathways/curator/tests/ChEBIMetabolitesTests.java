@@ -32,6 +32,7 @@ import java.util.List;
 import java.util.Map;
 
 import nl.unimaas.bigcat.wikipathways.curator.BridgeDbTiwidReader;
+import nl.unimaas.bigcat.wikipathways.curator.RenderOptions;
 import nl.unimaas.bigcat.wikipathways.curator.ResourceHelper;
 import nl.unimaas.bigcat.wikipathways.curator.SPARQLHelper;
 import nl.unimaas.bigcat.wikipathways.curator.StringMatrix;
@@ -130,7 +131,7 @@ public class ChEBIMetabolitesTests {
 		StringMatrix table = helper.sparql(sparql);
 		assertions.add(new AssertEquals(test,
 			0, table.getRowCount(), "Typo 'CHEBI' data sources (use 'ChEBI'): " + table.getRowCount(),
-			"" +table
+			table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
@@ -61,7 +61,7 @@ public class EnsemblTests {
 		StringMatrix table = helper.sparql(sparql);
 		assertions.add(new AssertNotNull(test, table));
 		assertions.add(new AssertNotSame(test,
-			0, table.getColumnCount(), "Expected more than 0 Ensembl identifiers"
+			0, table.getRowCount(), "Expected more than 0 Ensembl identifiers"
 		));
 		String errors = "";
 		int errorCount = 0;
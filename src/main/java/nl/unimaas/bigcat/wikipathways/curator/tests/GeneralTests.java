@@ -29,12 +29,12 @@ package nl.unimaas.bigcat.wikipathways.curator.tests;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
+import nl.unimaas.bigcat.wikipathways.curator.RenderOptions;
 import nl.unimaas.bigcat.wikipathways.curator.ResourceHelper;
+import nl.unimaas.bigcat.wikipathways.curator.RowIndex;
 import nl.unimaas.bigcat.wikipathways.curator.SPARQLHelper;
 import nl.unimaas.bigcat.wikipathways.curator.StringMatrix;
 import nl.unimaas.bigcat.wikipathways.curator.assertions.AssertEquals;
@@ -135,18 +135,22 @@ public class GeneralTests {
 		assertions.add(new AssertNotNull(test, table));
 		String errors = "";
 		int errorCount = 0;
-		Map<String,String> allTitles = new HashMap<>();
 		if (table.getRowCount() > 0) {
-			// OK, but then it must be proteins, e.g. IFN-b
+			StringMatrix.ColumnRef pages = table.getColumnRef("page");
+			StringMatrix.ColumnRef titles = table.getColumnRef("title");
+			StringMatrix.ColumnRef species = table.getColumnRef("species");
+			RowIndex rowsByTitle = table.groupBy(row ->
+				(titles.get(row) + " - " + species.get(row)).toLowerCase());
+			int[] duplicateOf = new int[table.getRowCount() + 1]; // the previous row with the title, or 0
+			for (String key : rowsByTitle.getKeys()) {
+				RowIndex.Rows rows = rowsByTitle.getRows(key);
+				for (int i=1; i<rows.size(); i++) duplicateOf[rows.get(i)] = rows.get(i-1);
+			}
 			for (int i=1; i<=table.getRowCount(); i++) {
-				String page  = table.get(i, "page");
-				String title = table.get(i, "title") + " - " + table.get(i, "species");
-				if (allTitles.containsKey(title.toLowerCase())) {
-				    errors += page + " '" + title + "' is duplicate title of " +
-				              allTitles.get(title.toLowerCase()) + "\n";
-				    errorCount++;
-				}
-				allTitles.put(title.toLowerCase(), page);
+				if (duplicateOf[i] == 0) continue;
+				errors += pages.get(i) + " '" + titles.get(i) + " - " + species.get(i) +
+				          "' is duplicate title of " + pages.get(duplicateOf[i]) + "\n";
+				errorCount++;
 			}
 		}
 		assertions.add(new AssertEquals(test,
@@ -254,7 +258,7 @@ public class GeneralTests {
 		StringMatrix table = helper.sparql(sparql);
 		assertions.add(new AssertNotNull(test, table));
 		assertions.add(new AssertEquals(test,
-			1, table.getRowCount(), "Expected only one PAV createdData but got: " + table.getRowCount(), "" + table)
+			1, table.getRowCount(), "Expected only one PAV createdData but got: " + table.getRowCount(), table.renderer(RenderOptions.DETAILS))
 		);
 		Date pavDate = new SimpleDateFormat("yyyy-MM-dd").parse(table.get(1, "date").substring(0,10));
 		Date now = new Date();
@@ -273,7 +277,7 @@ public class GeneralTests {
 		StringMatrix table = helper.sparql(sparql);
 		assertions.add(new AssertNotNull(test, table));
 		assertions.add(new AssertEquals(test,
-			0, table.getRowCount(), "Data nodes with a 'null' data source: " + table.getRowCount(), "" + table
+			0, table.getRowCount(), "Data nodes with a 'null' data source: " + table.getRowCount(), table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
@@ -285,7 +289,7 @@ public class GeneralTests {
 		StringMatrix table = helper.sparql(sparql);
 		assertions.add(new AssertNotNull(test, table));
 		assertions.add(new AssertEquals(test,
-			0, table.getRowCount(), "Data nodes with an 'undefined' data source: " + table.getRowCount(), "" + table
+			0, table.getRowCount(), "Data nodes with an 'undefined' data source: " + table.getRowCount(), table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
@@ -297,7 +301,7 @@ public class GeneralTests {
 		StringMatrix table = helper.sparql(sparql);
 		assertions.add(new AssertNotNull(test, table));
 		assertions.add(new AssertEquals(test,
-			0, table.getRowCount(), "Data nodes with an 'undefined' identifier: " + table.getRowCount(), "" + table
+			0, table.getRowCount(), "Data nodes with an 'undefined' identifier: " + table.getRowCount(), table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
@@ -330,7 +334,7 @@ public class GeneralTests {
 		StringMatrix table = helper.sparql(sparql);
 		assertions.add(new AssertNotNull(test, table));
 		assertions.add(new AssertEquals(test,
-			0, table.getRowCount(), "Data nodes without @GraphId: " + table.getRowCount(), "" + table
+			0, table.getRowCount(), "Data nodes without @GraphId: " + table.getRowCount(), table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
@@ -342,7 +346,7 @@ public class GeneralTests {
 		StringMatrix table = helper.sparql(sparql);
 		assertions.add(new AssertNotNull(test, table));
 		assertions.add(new AssertEquals(test,
-			0, table.getRowCount(), "Expected details for things of type gpml:Group: " + table.getRowCount(), "" + table
+			0, table.getRowCount(), "Expected details for things of type gpml:Group: " + table.getRowCount(), table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
@@ -29,6 +29,7 @@ package nl.unimaas.bigcat.wikipathways.curator.tests;
 import java.util.ArrayList;
 import java.util.List;
 
+import nl.unimaas.bigcat.wikipathways.curator.RenderOptions;
 import nl.unimaas.bigcat.wikipathways.curator.ResourceHelper;
 import nl.unimaas.bigcat.wikipathways.curator.SPARQLHelper;
 import nl.unimaas.bigcat.wikipathways.curator.StringMatrix;
@@ -54,7 +55,7 @@ public class HMDBMetabolitesTests {
 		StringMatrix table = helper.sparql(sparql);
 		assertions.add(new AssertNotNull(test, table));
 		assertions.add(new AssertEquals(test, 
-			0, table.getRowCount(), "Outdated HMDB identifiers", table.toString()
+			0, table.getRowCount(), "Outdated HMDB identifiers", table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
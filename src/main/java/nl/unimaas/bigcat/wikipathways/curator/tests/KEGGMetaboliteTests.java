@@ -29,6 +29,7 @@ package nl.unimaas.bigcat.wikipathways.curator.tests;
 import java.util.ArrayList;
 import java.util.List;
 
+import nl.unimaas.bigcat.wikipathways.curator.RenderOptions;
 import nl.unimaas.bigcat.wikipathways.curator.ResourceHelper;
 import nl.unimaas.bigcat.wikipathways.curator.SPARQLHelper;
 import nl.unimaas.bigcat.wikipathways.curator.StringMatrix;
@@ -53,7 +54,7 @@ public class KEGGMetaboliteTests {
 		StringMatrix table = helper.sparql(sparql);
 		assertions.add(new AssertNotNull(test, table));
 		assertions.add(new AssertEquals(test, 
-			0, table.getRowCount(), "KEGG Compound identifiers that are not C\\\\d+: " + table.getRowCount(), table.toString()
+			0, table.getRowCount(), "KEGG Compound identifiers that are not C\\\\d+: " + table.getRowCount(), table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
@@ -65,7 +66,7 @@ public class KEGGMetaboliteTests {
 		StringMatrix table = helper.sparql(sparql);
 		assertions.add(new AssertNotNull(test, table));
 		assertions.add(new AssertEquals(test, 
-			0, table.getRowCount(), "KEGG Compound identifiers should not have a 'cpd:' prefix: " + table.getRowCount(), table.toString()
+			0, table.getRowCount(), "KEGG Compound identifiers should not have a 'cpd:' prefix: " + table.getRowCount(), table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
@@ -29,6 +29,7 @@ package nl.unimaas.bigcat.wikipathways.curator.tests;
 import java.util.ArrayList;
 import java.util.List;
 
+import nl.unimaas.bigcat.wikipathways.curator.RenderOptions;
 import nl.unimaas.bigcat.wikipathways.curator.ResourceHelper;
 import nl.unimaas.bigcat.wikipathways.curator.SPARQLHelper;
 import nl.unimaas.bigcat.wikipathways.curator.StringMatrix;
@@ -54,7 +55,7 @@ public class MetaboliteStructureTests {
 		StringMatrix table = helper.sparql(sparql);
 		assertions.add(new AssertNotNull(test, table));
 		assertions.add(new AssertTrue(test,
-			table.getRowCount() > 15, "Unexpectedly low metabolite count: " + table.getRowCount(), "" + table
+			table.getRowCount() > 15, "Unexpectedly low metabolite count: " + table.getRowCount(), table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
@@ -66,7 +67,7 @@ public class MetaboliteStructureTests {
 		StringMatrix table = helper.sparql(sparql);
 		assertions.add(new AssertNotNull(test, table));
 		assertions.add(new AssertEquals(test,
-			0, table.getRowCount(), "Found metabolites that are not part of a pathway: " + table.getRowCount(), "" + table
+			0, table.getRowCount(), "Found metabolites that are not part of a pathway: " + table.getRowCount(), table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
@@ -31,6 +31,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import nl.unimaas.bigcat.wikipathways.curator.RenderOptions;
 import nl.unimaas.bigcat.wikipathways.curator.ResourceHelper;
 import nl.unimaas.bigcat.wikipathways.curator.SPARQLHelper;
 import nl.unimaas.bigcat.wikipathways.curator.StringMatrix;
@@ -102,7 +103,7 @@ public class MetabolitesTests {
 		StringMatrix table = helper.sparql(sparql);
 		assertions.add(new AssertNotNull(test, table));
 		assertions.add(new AssertEquals(test, 
-			0, table.getRowCount(), "Unexpected ChemSpider identifiers for non-metabolites: " + table.getRowCount(), table.toString()
+			0, table.getRowCount(), "Unexpected ChemSpider identifiers for non-metabolites: " + table.getRowCount(), table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
@@ -114,7 +115,7 @@ public class MetabolitesTests {
 		StringMatrix table = helper.sparql(sparql);
 		assertions.add(new AssertNotNull(test, table));
 		assertions.add(new AssertEquals(test, 
-			0, table.getRowCount(), "Unexpected HMDB identifiers for non-metabolites: " + table.getRowCount(), table.toString()
+			0, table.getRowCount(), "Unexpected HMDB identifiers for non-metabolites: " + table.getRowCount(), table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
@@ -126,7 +127,7 @@ public class MetabolitesTests {
 		StringMatrix table = helper.sparql(sparql);
 		assertions.add(new AssertNotNull(test, table));
 		assertions.add(new AssertEquals(test, 
-			0, table.getRowCount(), "Unexpected KEGG identifiers for non-metabolites: " + table.getRowCount(), table.toString()
+			0, table.getRowCount(), "Unexpected KEGG identifiers for non-metabolites: " + table.getRowCount(), table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
@@ -163,7 +164,7 @@ public class MetabolitesTests {
 		StringMatrix table = helper.sparql(sparql);
 		assertions.add(new AssertNotNull(test, table));
 		assertions.add(new AssertEquals(test,
-			0, table.getRowCount(), "Unexpected metabolites with an Ensemble identifier: " + table.getRowCount(), "" + table
+			0, table.getRowCount(), "Unexpected metabolites with an Ensemble identifier: " + table.getRowCount(), table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
@@ -175,7 +176,7 @@ public class MetabolitesTests {
 		StringMatrix table = helper.sparql(sparql);
 		assertions.add(new AssertNotNull(test, table));
 		assertions.add(new AssertEquals(test,
-			0, table.getRowCount(), "Unexpected metabolites with an Entrez Gene identifier:: " + table.getRowCount(), "" + table
+			0, table.getRowCount(), "Unexpected metabolites with an Entrez Gene identifier:: " + table.getRowCount(), table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
@@ -187,7 +188,7 @@ public class MetabolitesTests {
 		StringMatrix table = helper.sparql(sparql);
 		assertions.add(new AssertNotNull(test, table));
 		assertions.add(new AssertEquals(test,
-			0, table.getRowCount(), "Unexpected metabolites with identifier but no database source: " + table.getRowCount(), "" + table
+			0, table.getRowCount(), "Unexpected metabolites with identifier but no database source: " + table.getRowCount(), table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
@@ -199,7 +200,7 @@ public class MetabolitesTests {
 		StringMatrix table = helper.sparql(sparql);
 		assertions.add(new AssertNotNull(test, table));
 		assertions.add(new AssertEquals(test,
-			0, table.getRowCount(), "Unexpected metabolites with identifier but no database source: " + table.getRowCount(), "" + table
+			0, table.getRowCount(), "Unexpected metabolites with identifier but no database source: " + table.getRowCount(), table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
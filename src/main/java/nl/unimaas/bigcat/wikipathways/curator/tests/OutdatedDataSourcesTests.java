@@ -29,6 +29,7 @@ package nl.unimaas.bigcat.wikipathways.curator.tests;
 import java.util.ArrayList;
 import java.util.List;
 
+import nl.unimaas.bigcat.wikipathways.curator.RenderOptions;
 import nl.unimaas.bigcat.wikipathways.curator.ResourceHelper;
 import nl.unimaas.bigcat.wikipathways.curator.SPARQLHelper;
 import nl.unimaas.bigcat.wikipathways.curator.StringMatrix;
@@ -143,7 +144,7 @@ public class OutdatedDataSourcesTests {
 		assertions.add(new AssertNotNull(test, table));
 		// the metabolite test pathway has one outdated PubChem deliberately (WP2582)
 		assertions.add(new AssertTrue(test,
-			(table.getRowCount() <= 1), "Outdated 'PubChem' data sources (use 'PubChem-compound' or 'PubChem-substance')", "" + table
+			(table.getRowCount() <= 1), "Outdated 'PubChem' data sources (use 'PubChem-compound' or 'PubChem-substance')", table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
@@ -155,7 +156,7 @@ public class OutdatedDataSourcesTests {
 		StringMatrix table = helper.sparql(sparql);
 		assertions.add(new AssertNotNull(test, table));
 		assertions.add(new AssertEquals(test,
-			0, table.getRowCount(), "Don't use 'InChI' data sources yet, but found: " + table.getRowCount(), "" + table
+			0, table.getRowCount(), "Don't use 'InChI' data sources yet, but found: " + table.getRowCount(), table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
@@ -168,7 +169,7 @@ public class OutdatedDataSourcesTests {
 		assertions.add(new AssertNotNull(test, table));
 		// the metabolite test pathway has one outdated Kegg Compound deliberately (WP2582)
 		assertions.add(new AssertTrue(test,
-			(table.getRowCount() <= 1), "Outdated 'Kegg Compound' data sources (use 'KEGG Compound')", "" + table
+			(table.getRowCount() <= 1), "Outdated 'Kegg Compound' data sources (use 'KEGG Compound')", table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
@@ -181,7 +182,7 @@ public class OutdatedDataSourcesTests {
 		assertions.add(new AssertNotNull(test, table));
 		// the metabolite test pathway has one outdated Kegg Compound deliberately (WP2582)
 		assertions.add(new AssertTrue(test,
-			(table.getRowCount() <= 1), "Outdated 'kegg.compound' data sources (use 'KEGG Compound')", "" + table
+			(table.getRowCount() <= 1), "Outdated 'kegg.compound' data sources (use 'KEGG Compound')", table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
@@ -194,7 +195,7 @@ public class OutdatedDataSourcesTests {
 		assertions.add(new AssertNotNull(test, table));
 		// the metabolite test pathway has one outdated Kegg Compound deliberately (WP2582)
 		assertions.add(new AssertTrue(test,
-			(table.getRowCount() <= 1), "Outdated 'Kegg ortholog' data sources", "" + table
+			(table.getRowCount() <= 1), "Outdated 'Kegg ortholog' data sources", table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
@@ -207,7 +208,7 @@ public class OutdatedDataSourcesTests {
 		assertions.add(new AssertNotNull(test, table));
 		// the metabolite test pathway has one outdated Kegg enzyme deliberately (WP2582)
 		assertions.add(new AssertTrue(test,
-			(table.getRowCount() <= 1), "Outdated 'Kegg enzyme' data sources", "" + table
+			(table.getRowCount() <= 1), "Outdated 'Kegg enzyme' data sources", table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
@@ -219,7 +220,7 @@ public class OutdatedDataSourcesTests {
 		StringMatrix table = helper.sparql(sparql);
 		assertions.add(new AssertNotNull(test, table));
 		assertions.add(new AssertTrue(test,
-			(table.getRowCount() <= 1), "Outdated 'Ensembl Mouse' data sources (use 'Ensembl')", "" + table
+			(table.getRowCount() <= 1), "Outdated 'Ensembl Mouse' data sources (use 'Ensembl')", table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
@@ -231,7 +232,7 @@ public class OutdatedDataSourcesTests {
 		StringMatrix table = helper.sparql(sparql);
 		assertions.add(new AssertNotNull(test, table));
 		assertions.add(new AssertTrue(test,
-			(table.getRowCount() < 1), "Outdated 'ENSEMBL' data sources (use 'Ensembl')", "" + table
+			(table.getRowCount() < 1), "Outdated 'ENSEMBL' data sources (use 'Ensembl')", table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
@@ -243,7 +244,7 @@ public class OutdatedDataSourcesTests {
 		StringMatrix table = helper.sparql(sparql);
 		assertions.add(new AssertNotNull(test, table));
 		assertions.add(new AssertTrue(test,
-			(table.getRowCount() < 1), "Outdated 'Ensembl Human' data sources (use 'Ensembl')", "" + table
+			(table.getRowCount() < 1), "Outdated 'Ensembl Human' data sources (use 'Ensembl')", table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
@@ -255,7 +256,7 @@ public class OutdatedDataSourcesTests {
 		StringMatrix table = helper.sparql(sparql);
 		assertions.add(new AssertNotNull(test, table));
 		assertions.add(new AssertTrue(test,
-			(table.getRowCount() < 1), "Outdated 'Ensembl Mouse' data sources (use 'Ensembl')", "" + table
+			(table.getRowCount() < 1), "Outdated 'Ensembl Mouse' data sources (use 'Ensembl')", table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
@@ -267,7 +268,7 @@ public class OutdatedDataSourcesTests {
 		StringMatrix table = helper.sparql(sparql);
 		assertions.add(new AssertNotNull(test, table));
 		assertions.add(new AssertTrue(test,
-			(table.getRowCount() < 1), "Outdated 'Ensembl Human' data sources (use 'Ensembl')", "" + table
+			(table.getRowCount() < 1), "Outdated 'Ensembl Human' data sources (use 'Ensembl')", table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
@@ -279,7 +280,7 @@ public class OutdatedDataSourcesTests {
 		StringMatrix table = helper.sparql(sparql);
 		assertions.add(new AssertNotNull(test, table));
 		assertions.add(new AssertTrue(test,
-			(table.getRowCount() < 1), "Outdated 'Ensembl Yeast' data sources (use 'Ensembl')", "" + table
+			(table.getRowCount() < 1), "Outdated 'Ensembl Yeast' data sources (use 'Ensembl')", table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
@@ -291,7 +292,7 @@ public class OutdatedDataSourcesTests {
 		StringMatrix table = helper.sparql(sparql);
 		assertions.add(new AssertNotNull(test, table));
 		assertions.add(new AssertTrue(test,
-			(table.getRowCount() < 1), "Outdated 'Ensembl Cow' data sources (use 'Ensembl')", "" + table
+			(table.getRowCount() < 1), "Outdated 'Ensembl Cow' data sources (use 'Ensembl')", table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
@@ -303,7 +304,7 @@ public class OutdatedDataSourcesTests {
 		StringMatrix table = helper.sparql(sparql);
 		assertions.add(new AssertNotNull(test, table));
 		assertions.add(new AssertTrue(test,
-			(table.getRowCount() < 1), "Outdated 'Ensembl Chicken' data sources (use 'Ensembl')", "" + table
+			(table.getRowCount() < 1), "Outdated 'Ensembl Chicken' data sources (use 'Ensembl')", table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
@@ -315,7 +316,7 @@ public class OutdatedDataSourcesTests {
 		StringMatrix table = helper.sparql(sparql);
 		assertions.add(new AssertNotNull(test, table));
 		assertions.add(new AssertTrue(test,
-			(table.getRowCount() < 1), "Outdated 'EC Number' data sources (use 'Enzyme Nomenclature')", "" + table
+			(table.getRowCount() < 1), "Outdated 'EC Number' data sources (use 'Enzyme Nomenclature')", table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
@@ -327,7 +328,7 @@ public class OutdatedDataSourcesTests {
 		StringMatrix table = helper.sparql(sparql);
 		assertions.add(new AssertNotNull(test, table));
 		assertions.add(new AssertTrue(test,
-			(table.getRowCount() < 1), "Outdated 'ChemSpider' data sources (use 'Chemspider')", "" + table
+			(table.getRowCount() < 1), "Outdated 'ChemSpider' data sources (use 'Chemspider')", table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
@@ -31,6 +31,7 @@ import java.util.List;
 import java.util.Map;
 
 import nl.unimaas.bigcat.wikipathways.curator.BridgeDbTiwidReader;
+import nl.unimaas.bigcat.wikipathways.curator.RenderOptions;
 import nl.unimaas.bigcat.wikipathways.curator.ResourceHelper;
 import nl.unimaas.bigcat.wikipathways.curator.SPARQLHelper;
 import nl.unimaas.bigcat.wikipathways.curator.StringMatrix;
@@ -184,7 +185,7 @@ public class PathwayTests {
 		assertions.add(new AssertNotNull(test, table));
 		assertions.add(new AssertEquals(test, 0, table.getRowCount(),
 			"Pathway description that contain 'you must cite': " + table.getRowCount(),
-			"" + table
+			table.renderer(RenderOptions.DETAILS)
 		));
 		return assertions;
 	}
@@ -88,17 +88,11 @@ public class ReferencesTests {
 		int errorCount = 0;
 		if (table.getRowCount() > 0) {
 			for (int i=1; i<=table.getRowCount(); i++) {
-				String id = table.get(i, "id");
-				if (id != null && id.length() > 0) {
-					try {
-						if (Integer.parseInt(id) == 0) {
-							errors += table.get(i, "homepage") + ", '" +
-									table.get(i, "id") + "'\n";
-							errorCount++;
-						}
-					} catch (NumberFormatException exception) {
-						// already reporting these in nonNumericPubMedIDs()
-					}
+				// non-numeric IDs are already reported in nonNumericPubMedIDs()
+				if (table.isNumeric(i, "id") && table.getLong(i, "id") == 0) {
+					errors += table.get(i, "homepage") + ", '" +
+							table.get(i, "id") + "'\n";
+					errorCount++;
 				}
 			}
 		}
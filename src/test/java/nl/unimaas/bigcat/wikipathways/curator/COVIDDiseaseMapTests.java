@@ -26,9 +26,11 @@
  */
 package nl.unimaas.bigcat.wikipathways.curator;
 
+import java.io.IOException;
+
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
@@ -39,18 +41,18 @@ public class COVIDDiseaseMapTests extends JUnitTests {
 	private static SPARQLHelper helper = null;
 
 	@BeforeAll
-	public static void loadData() throws InterruptedException {
-		helper = (System.getProperty("SPARQLEP").contains("http:"))
-			? new SPARQLHelper(System.getProperty("SPARQLEP"))
-			: new SPARQLHelper(OPSWPRDFFiles.loadData());
+	public static void loadData() throws Exception {
+		helper = OPSWPRDFFiles.createHelper();
 		Assertions.assertTrue(helper.size() > 5000);
 		String parseErrors = OPSWPRDFFiles.getParseErrors();
 		Assertions.assertNotNull(parseErrors);
 		Assertions.assertEquals(0, parseErrors.length(), parseErrors.toString());
 	}
 
-	@BeforeEach
-	public void waitForIt() throws InterruptedException { Thread.sleep(OPSWPRDFFiles.SLEEP_TIME); }
+	@AfterAll
+	public static void closeHelper() throws IOException {
+		if (helper != null) helper.close();
+	}
 
 	@Test
 	@Tag("covid")
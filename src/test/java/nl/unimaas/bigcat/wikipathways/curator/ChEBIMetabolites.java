@@ -26,15 +26,16 @@
  */
 package nl.unimaas.bigcat.wikipathways.curator;
 
+import java.io.IOException;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import nl.unimaas.bigcat.wikipathways.curator.tests.ChEBIMetabolitesTests;
@@ -52,10 +53,8 @@ public class ChEBIMetabolites extends JUnitTests {
 	private static SPARQLHelper helper = null;
 
 	@BeforeAll
-	public static void loadData() throws InterruptedException {
-		helper = (System.getProperty("SPARQLEP").contains("http:"))
-			? new SPARQLHelper(System.getProperty("SPARQLEP"))
-			: new SPARQLHelper(OPSWPRDFFiles.loadData());
+	public static void loadData() throws Exception {
+		helper = OPSWPRDFFiles.createHelper();
 		Assertions.assertTrue(helper.size() > 5000);
 		String parseErrors = OPSWPRDFFiles.getParseErrors();
 		Assertions.assertNotNull(parseErrors);
@@ -70,8 +69,10 @@ public class ChEBIMetabolites extends JUnitTests {
 		}
 	}
 
-	@BeforeEach
-	public void waitForIt() throws InterruptedException { Thread.sleep(OPSWPRDFFiles.SLEEP_TIME); }
+	@AfterAll
+	public static void closeHelper() throws IOException {
+		if (helper != null) helper.close();
+	}
 
 	@Test
 	public void secondaryChEBIIdentifiers() throws Exception {
@@ -0,0 +1,162 @@
+/* Copyright (C) 2026  Egon Willighagen <egon.willighagen@gmail.com>
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   - Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package nl.unimaas.bigcat.wikipathways.curator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import nl.unimaas.bigcat.wikipathways.curator.EndpointExecutor.RetryableException;
+
+public class EndpointExecutorTests {
+
+	// fails with the given status the first failures times, and then answers
+	private static Callable<String> failing(AtomicInteger attempts, int failures, int statusCode, long retryAfter) {
+		return () -> {
+			if (attempts.incrementAndGet() <= failures)
+				throw new RetryableException(statusCode, "Endpoint not available", retryAfter);
+			return "answer";
+		};
+	}
+
+	@Test
+	public void retryable() {
+		Assertions.assertTrue(EndpointExecutor.isRetryable(429));
+		Assertions.assertTrue(EndpointExecutor.isRetryable(502));
+		Assertions.assertTrue(EndpointExecutor.isRetryable(503));
+		Assertions.assertFalse(EndpointExecutor.isRetryable(500));
+		Assertions.assertFalse(EndpointExecutor.isRetryable(504));
+	}
+
+	@Test
+	public void retriesUntilAnswered() throws Exception {
+		EndpointExecutor executor = new EndpointExecutor(2, 0, 5, 1);
+		AtomicInteger attempts = new AtomicInteger();
+		Assertions.assertEquals("answer", executor.execute(failing(attempts, 3, 503, -1)));
+		Assertions.assertEquals(4, attempts.get());
+		Assertions.assertEquals(3, executor.getRetryCount());
+	}
+
+	@Test
+	public void givesUpAfterMaxRetries() {
+		EndpointExecutor executor = new EndpointExecutor(2, 0, 2, 1);
+		AtomicInteger attempts = new AtomicInteger();
+		RetryableException exception = Assertions.assertThrows(RetryableException.class,
+			() -> executor.execute(failing(attempts, 10, 429, -1)));
+		Assertions.assertEquals(429, exception.getStatusCode());
+		Assertions.assertEquals(3, attempts.get());
+		Assertions.assertEquals(2, executor.getRetryCount());
+	}
+
+	@Test
+	public void otherFailuresAreNotRetried() {
+		EndpointExecutor executor = new EndpointExecutor(2, 0, 5, 1);
+		AtomicInteger attempts = new AtomicInteger();
+		Assertions.assertThrows(IOException.class, () -> executor.execute(() -> {
+			attempts.incrementAndGet();
+			throw new IOException("Connection reset");
+		}));
+		Assertions.assertEquals(1, attempts.get());
+		Assertions.assertEquals(0, executor.getRetryCount());
+	}
+
+	@Test
+	public void backoffWithFullJitter() {
+		EndpointExecutor executor = new EndpointExecutor(1, 0, 5, 100);
+		for (int attempt=0; attempt<8; attempt++) {
+			long ceiling = Math.min(EndpointExecutor.MAX_BACKOFF, 100L << attempt);
+			for (int i=0; i<100; i++) {
+				long delay = executor.backoff(attempt, -1);
+				Assertions.assertTrue(delay >= 50 && delay < Math.max(51, ceiling), "attempt " + attempt + ": " + delay);
+			}
+		}
+		Assertions.assertTrue(executor.backoff(20, -1) < EndpointExecutor.MAX_BACKOFF);
+	}
+
+	@Test
+	public void retryAfterIsHonored() throws Exception {
+		EndpointExecutor executor = new EndpointExecutor(1, 0, 5, 1);
+		Assertions.assertEquals(5000, executor.backoff(0, 5000));
+		AtomicInteger attempts = new AtomicInteger();
+		long start = System.nanoTime();
+		executor.execute(failing(attempts, 1, 503, 100));
+		Assertions.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 100);
+		Assertions.assertEquals(2, attempts.get());
+	}
+
+	@Test
+	public void boundsConcurrency() throws Exception {
+		EndpointExecutor executor = new EndpointExecutor(3, 0, 0, 1);
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		Callable<String> request = () -> {
+			int now = running.incrementAndGet();
+			maxRunning.accumulateAndGet(now, Math::max);
+			Thread.sleep(20);
+			running.decrementAndGet();
+			return "answer";
+		};
+		List<Thread> threads = new ArrayList<>();
+		for (int i=0; i<10; i++) {
+			Thread thread = new Thread(() -> {
+				try {
+					executor.execute(request);
+				} catch (Exception exception) {
+					throw new IllegalStateException(exception);
+				}
+			});
+			thread.start();
+			threads.add(thread);
+		}
+		for (Thread thread : threads) thread.join();
+		Assertions.assertTrue(maxRunning.get() <= 3, "Running at the same time: " + maxRunning.get());
+
+		maxRunning.set(0);
+		List<Future<String>> futures = new ArrayList<>();
+		for (int i=0; i<10; i++) futures.add(executor.submit(request));
+		for (Future<String> future : futures) Assertions.assertEquals("answer", future.get());
+		Assertions.assertTrue(maxRunning.get() <= 3, "Running at the same time: " + maxRunning.get());
+		executor.close();
+	}
+
+	@Test
+	public void limitsRate() throws Exception {
+		// the bucket holds one token, so five requests wait for four more at 20 per second
+		EndpointExecutor executor = new EndpointExecutor(1, 20, 0, 1);
+		long start = System.nanoTime();
+		for (int i=0; i<5; i++) executor.execute(() -> "answer");
+		Assertions.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 150);
+	}
+
+}
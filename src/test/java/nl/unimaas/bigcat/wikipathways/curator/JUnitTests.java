@@ -3,13 +3,16 @@ package nl.unimaas.bigcat.wikipathways.curator;
 import java.util.List;
 
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.extension.ExtendWith;
 
 import nl.unimaas.bigcat.wikipathways.curator.assertions.AssertEquals;
+import nl.unimaas.bigcat.wikipathways.curator.assertions.AssertNoTimeout;
 import nl.unimaas.bigcat.wikipathways.curator.assertions.AssertNotNull;
 import nl.unimaas.bigcat.wikipathways.curator.assertions.AssertNotSame;
 import nl.unimaas.bigcat.wikipathways.curator.assertions.AssertTrue;
 import nl.unimaas.bigcat.wikipathways.curator.assertions.IAssertion;
 
+@ExtendWith(QueryTimeoutHandler.class)
 public class JUnitTests {
 
 	/**
@@ -53,6 +56,12 @@ public class JUnitTests {
 					(typedAssertion.hasLinkToDocs() ? (" (See " + typedAssertion.getLinkToDocs() + "). ") : "") +
 					". Details:\n" + typedAssertion.getDetails()
 				);
+			} else if (assertion instanceof AssertNoTimeout) {
+				AssertNoTimeout typedAssertion = (AssertNoTimeout)assertion;
+				Assertions.fail(
+					"Timeout after " + typedAssertion.getValue() + " ms: " + typedAssertion.getMessage() +
+					". Details:\n" + typedAssertion.getDetails()
+				);
 			} else {
 				Assertions.assertTrue(false, "Unrecognized assertion type: " + assertion.getClass().getName());
 			}
@@ -0,0 +1,399 @@
+/* Copyright (C) 2026  Egon Willighagen <egon.willighagen@gmail.com>
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   - Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package nl.unimaas.bigcat.wikipathways.curator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryCancelledException;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.QueryExecutionFactory;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.query.QueryParseException;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.ResultSetMgr;
+import org.apache.jena.riot.resultset.ResultSetLang;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+// minimal SPARQL endpoint on localhost for testing the endpoint code of SPARQLHelper without
+// a remote server, with optional latency, bandwidth, and a fraction of HTTP 503 answers
+public class LocalEndpoint implements Closeable {
+
+	public static final String PATH = "/sparql";
+
+	private static final List<Lang> RESULT_FORMATS = new ArrayList<Lang>();
+	static {
+		RESULT_FORMATS.add(ResultSetLang.SPARQLResultSetXML); // the default for */*
+		RESULT_FORMATS.add(ResultSetLang.SPARQLResultSetJSON);
+		RESULT_FORMATS.add(ResultSetLang.SPARQLResultSetThrift);
+		RESULT_FORMATS.add(ResultSetLang.SPARQLResultSetTSV);
+		RESULT_FORMATS.add(ResultSetLang.SPARQLResultSetCSV);
+	}
+
+	private final Model model;
+	private HttpServer server = null;
+	private ExecutorService executorService = null;
+
+	private long latency = 0; // in milliseconds
+	private long bandwidth = 0; // in bytes per second
+	private double errorRate = 0.0;
+	private final AtomicInteger failNext = new AtomicInteger();
+	private List<Lang> resultFormats = RESULT_FORMATS;
+	private boolean firstFormatOnly = false;
+	private long maxRows = 0;
+
+	private final AtomicLong requestCount = new AtomicLong();
+	private final AtomicLong errorCount = new AtomicLong();
+	private final AtomicLong bytesSent = new AtomicLong();
+
+	public LocalEndpoint(Model model) {
+		this.model = model;
+	}
+
+	// LOCALEP_LATENCY in milliseconds, LOCALEP_BANDWIDTH in bytes per second, LOCALEP_ERRORRATE 0 to 1
+	public static LocalEndpoint fromSystemProperties(Model model) {
+		LocalEndpoint endpoint = new LocalEndpoint(model);
+		String latency = System.getProperty("LOCALEP_LATENCY");
+		if (isSet(latency)) endpoint.setLatency(Long.parseLong(latency.trim()));
+		String bandwidth = System.getProperty("LOCALEP_BANDWIDTH");
+		if (isSet(bandwidth)) endpoint.setBandwidth(Long.parseLong(bandwidth.trim()));
+		String errorRate = System.getProperty("LOCALEP_ERRORRATE");
+		if (isSet(errorRate)) endpoint.setErrorRate(Double.parseDouble(errorRate.trim()));
+		return endpoint;
+	}
+
+	private static boolean isSet(String property) {
+		return property != null && !property.trim().isEmpty() && !property.startsWith("${");
+	}
+
+	// in milliseconds
+	public void setLatency(long latency) {
+		this.latency = latency;
+	}
+
+	// bytes per second per response, 0 for no limit
+	public void setBandwidth(long bandwidth) {
+		this.bandwidth = bandwidth;
+	}
+
+	public void setErrorRate(double errorRate) {
+		if (errorRate < 0.0 || errorRate > 1.0) throw new IllegalArgumentException("The error rate must be between 0 and 1");
+		this.errorRate = errorRate;
+	}
+
+	public void failNext(int requests) {
+		this.failNext.set(requests);
+	}
+
+	public void setResultFormats(List<Lang> formats) {
+		this.resultFormats = new ArrayList<Lang>(formats);
+	}
+
+	// like endpoints that only look at the first media type of the Accept header
+	public void setFirstFormatOnly(boolean firstFormatOnly) {
+		this.firstFormatOnly = firstFormatOnly;
+	}
+
+	// like endpoints that cut off results at a maximum number of rows, 0 for no limit
+	public void setMaxRows(long maxRows) {
+		this.maxRows = maxRows;
+	}
+
+	// 0 for a free port
+	public synchronized LocalEndpoint start(int port) throws IOException {
+		if (server != null) throw new IllegalStateException("The endpoint is already running");
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		AtomicInteger threadCount = new AtomicInteger();
+		executorService = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "local-endpoint-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		server.setExecutor(executorService);
+		server.createContext(PATH, this::handle);
+		server.start();
+		return this;
+	}
+
+	public LocalEndpoint start() throws IOException {
+		return start(0);
+	}
+
+	public synchronized String getURL() {
+		if (server == null) throw new IllegalStateException("The endpoint is not running");
+		return "http://localhost:" + server.getAddress().getPort() + PATH;
+	}
+
+	public long getRequestCount() {
+		return requestCount.get();
+	}
+
+	public long getErrorCount() {
+		return errorCount.get();
+	}
+
+	public long getBytesSent() {
+		return bytesSent.get();
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try {
+			requestCount.incrementAndGet();
+			Map<String,String> parameters = parameters(exchange);
+			if (latency > 0) Thread.sleep(latency);
+			if (failNext.getAndUpdate(count -> Math.max(0, count - 1)) > 0 ||
+				(errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate)) {
+				errorCount.incrementAndGet();
+				sendText(exchange, 503, "Injected error");
+				return;
+			}
+
+			String queryString = parameters.get("query");
+			if (queryString == null) {
+				sendText(exchange, 400, "No query given");
+				return;
+			}
+			Query query;
+			try {
+				query = QueryFactory.create(queryString);
+			} catch (QueryParseException exception) {
+				sendText(exchange, 400, "Query parse error: " + exception.getMessage());
+				return;
+			}
+			if (!query.isSelectType() && !query.isAskType()) {
+				sendText(exchange, 400, "Only SELECT and ASK queries are supported");
+				return;
+			}
+			if (maxRows > 0 && (!query.hasLimit() || query.getLimit() > maxRows)) query.setLimit(maxRows);
+			Lang format = negotiate(exchange.getRequestHeaders().getFirst("Accept"), resultFormats, firstFormatOnly);
+			if (format == null) {
+				sendText(exchange, 406, "None of the accepted result formats is supported");
+				return;
+			}
+
+			try (ReadTransaction transaction = ReadTransaction.begin(model);
+			     QueryExecution execution = QueryExecutionFactory.create(query, model)) {
+				String timeout = parameters.get("timeout");
+				if (timeout != null) execution.setTimeout(Long.parseLong(timeout.trim()));
+				// the results are written to a buffer first, so that errors can still be reported
+				ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+				if (query.isSelectType()) {
+					ResultSetMgr.write(buffer, execution.execSelect(), format);
+				} else {
+					ResultSetMgr.write(buffer, execution.execAsk(), format);
+				}
+				exchange.getResponseHeaders().set("Content-Type", format.getContentType().getContentTypeStr());
+				exchange.sendResponseHeaders(200, buffer.size());
+				try (OutputStream out = throttle(exchange.getResponseBody())) {
+					buffer.writeTo(out);
+				}
+				bytesSent.addAndGet(buffer.size());
+			} catch (QueryCancelledException exception) {
+				// not 503, which clients retry, and a timed-out query would only time out again
+				sendText(exchange, 504, "Query timed out");
+			} catch (NumberFormatException exception) {
+				sendText(exchange, 400, "Invalid timeout: " + parameters.get("timeout"));
+			}
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+		} catch (IOException exception) {
+			// the client went away
+		} catch (RuntimeException exception) {
+			sendText(exchange, 500, "Query failed: " + exception.getMessage());
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private static Map<String,String> parameters(HttpExchange exchange) throws IOException {
+		Map<String,String> parameters = new HashMap<String,String>();
+		parseForm(exchange.getRequestURI().getRawQuery(), parameters);
+		if ("POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+			String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+			String body = readFully(exchange.getRequestBody());
+			if (contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith("application/sparql-query")) {
+				parameters.put("query", body);
+			} else {
+				parseForm(body, parameters);
+			}
+		}
+		return parameters;
+	}
+
+	private static void parseForm(String form, Map<String,String> parameters) throws IOException {
+		if (form == null || form.isEmpty()) return;
+		for (String pair : form.split("&")) {
+			int index = pair.indexOf('=');
+			if (index <= 0) continue;
+			parameters.put(
+				URLDecoder.decode(pair.substring(0, index), "UTF-8"),
+				URLDecoder.decode(pair.substring(index+1), "UTF-8")
+			);
+		}
+	}
+
+	private static String readFully(InputStream in) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		byte[] bytes = new byte[8192];
+		int read;
+		while ((read = in.read(bytes)) != -1) buffer.write(bytes, 0, read);
+		return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	static Lang negotiate(String accept) {
+		return negotiate(accept, RESULT_FORMATS, false);
+	}
+
+	// null if none of the accepted formats is supported
+	static Lang negotiate(String accept, List<Lang> formats, boolean firstFormatOnly) {
+		if (accept == null || accept.trim().isEmpty()) return formats.get(0);
+		Lang best = null;
+		double bestQuality = 0.0;
+		String[] ranges = accept.split(",");
+		if (firstFormatOnly) ranges = new String[] { ranges[0] };
+		for (String range : ranges) {
+			String[] parts = range.split(";");
+			String mimeType = parts[0].trim().toLowerCase(Locale.ROOT);
+			double quality = 1.0;
+			for (int i=1; i<parts.length; i++) {
+				String parameter = parts[i].trim();
+				if (parameter.startsWith("q=")) {
+					try {
+						quality = Double.parseDouble(parameter.substring(2));
+					} catch (NumberFormatException exception) {
+						quality = 0.0;
+					}
+				}
+			}
+			if (quality <= bestQuality) continue;
+			for (Lang format : formats) {
+				if (matches(format, mimeType)) {
+					best = format;
+					bestQuality = quality;
+					break;
+				}
+			}
+		}
+		return best;
+	}
+
+	private static boolean matches(Lang format, String mimeType) {
+		if (mimeType.equals("*/*") || mimeType.equals("application/*")) return true;
+		if (format.getContentType().getContentTypeStr().equals(mimeType)) return true;
+		return format.getAltContentTypes().contains(mimeType);
+	}
+
+	private void sendText(HttpExchange exchange, int status, String message) throws IOException {
+		byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	private OutputStream throttle(OutputStream out) {
+		if (bandwidth <= 0) return out;
+		return new ThrottledOutputStream(out, bandwidth);
+	}
+
+	private static class ThrottledOutputStream extends FilterOutputStream {
+
+		private final long bytesPerSecond;
+		private final long start = System.nanoTime();
+		private long written = 0;
+
+		ThrottledOutputStream(OutputStream out, long bytesPerSecond) {
+			super(out);
+			this.bytesPerSecond = bytesPerSecond;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte)b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] bytes, int offset, int length) throws IOException {
+			int chunkSize = (int)Math.max(1, Math.min(Integer.MAX_VALUE, bytesPerSecond / 10));
+			while (length > 0) {
+				int chunk = Math.min(length, chunkSize);
+				out.write(bytes, offset, chunk);
+				written += chunk;
+				offset += chunk;
+				length -= chunk;
+				long due = start + written * 1000000000L / bytesPerSecond;
+				long wait = due - System.nanoTime();
+				if (wait > 0) {
+					try {
+						TimeUnit.NANOSECONDS.sleep(wait);
+					} catch (InterruptedException exception) {
+						Thread.currentThread().interrupt();
+						throw new InterruptedIOException("Interrupted while sending the response");
+					}
+				}
+			}
+		}
+	}
+
+	@Override
+	public synchronized void close() {
+		if (server != null) {
+			server.stop(0);
+			server = null;
+		}
+		if (executorService != null) {
+			executorService.shutdownNow();
+			executorService = null;
+		}
+	}
+
+}
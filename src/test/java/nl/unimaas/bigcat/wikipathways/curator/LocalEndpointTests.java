@@ -0,0 +1,129 @@
+/* Copyright (C) 2026  Egon Willighagen <egon.willighagen@gmail.com>
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   - Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package nl.unimaas.bigcat.wikipathways.curator;
+
+import java.util.Collections;
+
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.riot.resultset.ResultSetLang;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LocalEndpointTests {
+
+	private static final String QUERY =
+		"SELECT ?item ?value WHERE { ?item <urn:value> ?value } ORDER BY ?value";
+
+	private static Model createModel(int items) {
+		Model model = ModelFactory.createDefaultModel();
+		Property value = model.createProperty("urn:value");
+		for (int i=1; i<=items; i++) {
+			model.addLiteral(model.createResource("urn:item" + i), value,
+				model.createTypedLiteral("" + i, XSDDatatype.XSDinteger));
+		}
+		return model;
+	}
+
+	private static SPARQLHelper createHelper(LocalEndpoint endpoint) {
+		SPARQLHelper helper = new SPARQLHelper(endpoint.getURL());
+		// a new endpoint may get the port of an earlier one, with results still cached
+		SPARQLHelper.getCache().invalidate(helper.getDatasetFingerprint());
+		return helper;
+	}
+
+	private static void assertSameTable(StringMatrix expected, StringMatrix actual) {
+		Assertions.assertEquals(expected.getRowCount(), actual.getRowCount());
+		Assertions.assertEquals(expected.getColumnNames(), actual.getColumnNames());
+		for (int row=1; row<=expected.getRowCount(); row++) {
+			for (int col=1; col<=expected.getColumnCount(); col++)
+				Assertions.assertEquals(expected.get(row, col), actual.get(row, col), "row " + row + ", column " + col);
+		}
+	}
+
+	@Test
+	public void negotiate() {
+		Assertions.assertEquals(ResultSetLang.SPARQLResultSetXML, LocalEndpoint.negotiate(null));
+		Assertions.assertEquals(ResultSetLang.SPARQLResultSetXML, LocalEndpoint.negotiate("*/*"));
+		Assertions.assertEquals(ResultSetLang.SPARQLResultSetThrift,
+			LocalEndpoint.negotiate(SPARQLHelper.acceptHeader(SPARQLHelper.DEFAULT_RESULT_FORMATS)));
+		Assertions.assertEquals(ResultSetLang.SPARQLResultSetTSV,
+			LocalEndpoint.negotiate("application/sparql-results+json;q=0.5, text/tab-separated-values;q=0.8"));
+		Assertions.assertNull(LocalEndpoint.negotiate("text/html"));
+	}
+
+	@Test
+	public void query() throws Exception {
+		Model model = createModel(5);
+		try (LocalEndpoint endpoint = new LocalEndpoint(model).start();
+		     SPARQLHelper helper = createHelper(endpoint)) {
+			assertSameTable(SPARQLHelper.sparql(model, QUERY), helper.sparql(QUERY));
+			Assertions.assertEquals(1, endpoint.getRequestCount());
+		}
+	}
+
+	@Test
+	public void notAcceptableFallsBackToXML() throws Exception {
+		Model model = createModel(5);
+		try (LocalEndpoint endpoint = new LocalEndpoint(model).start();
+		     SPARQLHelper helper = createHelper(endpoint)) {
+			endpoint.setResultFormats(Collections.singletonList(ResultSetLang.SPARQLResultSetXML));
+			endpoint.setFirstFormatOnly(true);
+			assertSameTable(SPARQLHelper.sparql(model, QUERY), helper.sparql(QUERY));
+			// the first request was answered with 406
+			Assertions.assertEquals(2, endpoint.getRequestCount());
+			Assertions.assertEquals(Collections.singletonList(ResultSetLang.SPARQLResultSetXML),
+				SPARQLHelper.getResultFormats(endpoint.getURL()));
+		}
+	}
+
+	@Test
+	public void retriesUnavailableEndpoint() throws Exception {
+		Model model = createModel(5);
+		try (LocalEndpoint endpoint = new LocalEndpoint(model).start();
+		     SPARQLHelper helper = createHelper(endpoint)) {
+			endpoint.failNext(2);
+			assertSameTable(SPARQLHelper.sparql(model, QUERY), helper.sparql(QUERY));
+			Assertions.assertEquals(2, endpoint.getErrorCount());
+			Assertions.assertEquals(3, endpoint.getRequestCount());
+		}
+	}
+
+	@Test
+	public void pages() throws Exception {
+		Model model = createModel(25);
+		try (LocalEndpoint endpoint = new LocalEndpoint(model).start();
+		     SPARQLHelper helper = createHelper(endpoint)) {
+			helper.setPageSize(10);
+			assertSameTable(SPARQLHelper.sparql(model, QUERY), helper.sparql(QUERY));
+			Assertions.assertTrue(endpoint.getRequestCount() >= 3, "Requests: " + endpoint.getRequestCount());
+		}
+	}
+
+}
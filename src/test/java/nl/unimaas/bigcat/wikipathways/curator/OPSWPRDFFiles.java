@@ -29,35 +29,303 @@ package nl.unimaas.bigcat.wikipathways.curator;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Triple;
 import org.apache.jena.ttl.turtle.TurtleParseException;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
 import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.apache.jena.riot.system.StreamRDFLib;
 
 public class OPSWPRDFFiles {
 
-	private static Model loadedData = null;
-	private static boolean locked = false;
-	private static String parseErrors = "";
-	
+	private static final Map<String,CompletableFuture<LoadedData>> loadedData = new ConcurrentHashMap<>();
+	private static volatile String parseErrors = "";
+	private static LocalEndpoint localEndpoint = null;
+	private static volatile FileGraphStore fileGraphStore = null;
+	private static TripleFilter tripleFilter = null;
+	private static boolean tripleFilterCreated = false;
+
+	private static class LoadedData {
+		final Model model;
+		final String parseErrors;
+
+		LoadedData(Model model, String parseErrors) {
+			this.model = model;
+			this.parseErrors = parseErrors;
+		}
+	}
+
+	// loaded once; concurrent callers wait for the first one
 	public static Model loadData() throws InterruptedException {
-		parseErrors = "";
 		if (System.getProperty("SPARQLEP").startsWith("http")) {
+			parseErrors = "";
 			return null;
 		}
 
-		if (loadedData != null) return loadedData;
+		String folder = getFolder();
+		String subsetPrefix = getSubsetPrefix();
+		String key = folder + "\n" + subsetPrefix;
+		CompletableFuture<LoadedData> load = new CompletableFuture<>();
+		CompletableFuture<LoadedData> existing = loadedData.putIfAbsent(key, load);
+		if (existing == null) {
+			try {
+				load.complete(load(folder, subsetPrefix));
+			} catch (InterruptedException | RuntimeException | Error exception) {
+				loadedData.remove(key, load); // so that a next call tries again
+				load.completeExceptionally(exception);
+				throw exception;
+			}
+		} else {
+			load = existing;
+		}
+
+		LoadedData data;
+		try {
+			data = load.get();
+		} catch (ExecutionException exception) {
+			throw new IllegalStateException("Could not load the WPRDF files", exception.getCause());
+		}
+		parseErrors = data.parseErrors;
+		return data.model;
+	}
+
+	private static LoadedData load(String folder, String subsetPrefix) throws InterruptedException {
+		System.out.println("OPSWPRDF folder: " + folder);
+		System.out.println("WP subset: " + subsetPrefix);
+
+		List<File> files = findAllFiles(folder, subsetPrefix);
+		System.out.println("Testing these files: " + files);
+		FileGraphStore store = TDB2FileStore.fromSystemProperties();
+		if (store == null && Boolean.getBoolean("OPSWPRDF_GRAPHS")) store = new FileGraphStore();
+		if (store != null) {
+			store.setFilter(getTripleFilter());
+			long start = System.currentTimeMillis();
+			try {
+				String errors = store.update(files, QueryResultDiskCache.hashContent());
+				System.out.println("Updated " + store + ": " + store.getUpdatedFiles().size() + " of " +
+					files.size() + " files loaded in " + (System.currentTimeMillis() - start) + " ms");
+				fileGraphStore = store;
+				return new LoadedData(store.getModel(), errors);
+			} catch (IOException exception) {
+				throw new IllegalStateException("Could not update " + store + ": " + exception.getMessage(), exception);
+			}
+		}
+		long start = System.currentTimeMillis();
+		File snapshotFile = ModelSnapshot.fileFromSystemProperties();
+		String fingerprint = null;
+		if (snapshotFile != null) {
+			try {
+				fingerprint = datasetFingerprint(subsetPrefix, files);
+			} catch (IOException exception) {
+				throw new IllegalStateException("Could not fingerprint the WPRDF files: " + exception.getMessage(), exception);
+			}
+			ModelSnapshot snapshot = null;
+			try {
+				snapshot = ModelSnapshot.read(snapshotFile, fingerprint);
+			} catch (IOException exception) {
+				System.out.println("Ignoring the snapshot: " + exception.getMessage());
+			}
+			if (snapshot != null) {
+				System.out.println("Loaded " + snapshot.getModel().size() + " triples from the snapshot " +
+					snapshotFile + " in " + (System.currentTimeMillis() - start) + " ms");
+				return new LoadedData(snapshot.getModel(), snapshot.getParseErrors());
+			}
+		}
+
+		StringBuffer parseFailReport = new StringBuffer();
+		int threads = getLoaderThreads();
+		Model data = ModelFactory.createDefaultModel();
+		if (threads <= 1 || files.size() <= 1) {
+			for (File file : files) {
+				String error = parseFile(file, StreamRDFLib.graph(data.getGraph()));
+				if (error != null) parseFailReport.append(error);
+			}
+		} else {
+			loadInParallel(files, threads, data, parseFailReport);
+		}
+		System.out.println("Loaded " + files.size() + " files (" + data.size() + " triples) in " +
+			(System.currentTimeMillis() - start) + " ms with " + threads + " thread(s)");
+		if (snapshotFile != null) {
+			try {
+				ModelSnapshot.write(snapshotFile, fingerprint, data, parseFailReport.toString());
+			} catch (IOException exception) {
+				System.out.println("Could not write the snapshot " + snapshotFile + ": " + exception.getMessage());
+			}
+		}
+		return new LoadedData(data, parseFailReport.toString());
+	}
 
-		while (locked) Thread.sleep(1000);
+	// each file is parsed into its own buffer and added in file order, so the data and
+	// parse errors are the same as when reading them one after another
+	private static void loadInParallel(List<File> files, int threads, Model data, StringBuffer parseFailReport)
+			throws InterruptedException {
+		AtomicInteger threadCount = new AtomicInteger();
+		ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "wprdf-loader-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		Deque<Future<ParsedFile>> parsing = new ArrayDeque<>();
+		Iterator<File> next = files.iterator();
+		try {
+			while (next.hasNext() && parsing.size() < threads * 2) parsing.add(pool.submit(parseTask(next.next())));
+			while (!parsing.isEmpty()) {
+				ParsedFile parsed;
+				try {
+					parsed = parsing.removeFirst().get();
+				} catch (ExecutionException exception) {
+					throw new IllegalStateException("Could not load the WPRDF files", exception.getCause());
+				}
+				if (next.hasNext()) parsing.add(pool.submit(parseTask(next.next())));
+				// like Model.read(), the triples before a parse error are kept
+				Graph graph = data.getGraph();
+				for (Triple triple : parsed.triples) graph.add(triple);
+				data.setNsPrefixes(parsed.prefixes);
+				if (parsed.error != null) parseFailReport.append(parsed.error);
+			}
+		} finally {
+			for (Future<ParsedFile> future : parsing) future.cancel(true);
+			pool.shutdownNow();
+		}
+	}
 
-		if (loadedData != null) return loadedData;
+	private static class ParsedFile extends StreamRDFBase {
+		final List<Triple> triples = new ArrayList<>();
+		final Map<String,String> prefixes = new HashMap<>();
+		String error = null;
 
-		locked = true;
+		@Override
+		public void triple(Triple triple) {
+			triples.add(triple);
+		}
 
+		@Override
+		public void prefix(String prefix, String iri) {
+			prefixes.put(prefix, iri);
+		}
+	}
+
+	private static Callable<ParsedFile> parseTask(File file) {
+		return () -> {
+			ParsedFile parsed = new ParsedFile();
+			parsed.error = parseFile(file, parsed);
+			return parsed;
+		};
+	}
+
+	private static String parseFile(File file, StreamRDF sink) {
+		try (InputStream in = new FileInputStream(file)) {
+			TripleFilter filter = getTripleFilter();
+			RDFDataMgr.parse(filter == null ? sink : filter.wrap(sink), in, "", Lang.TURTLE);
+		} catch (FileNotFoundException exception) {
+			return file.getName() + ": not found\n";
+		} catch (TurtleParseException exception) {
+			return file.getName() + ": " + exception.getMessage() + '\n';
+		} catch (RiotException exception) {
+			return file.getName() + ": " + exception.getMessage() + '\n';
+		} catch (IOException exception) {
+			return file.getName() + ": " + exception.getMessage() + '\n';
+		}
+		return null;
+	}
+
+	// null if all triples are kept, the default
+	static synchronized TripleFilter getTripleFilter() {
+		if (!tripleFilterCreated) {
+			try {
+				tripleFilter = TripleFilter.fromSystemProperties();
+			} catch (IOException exception) {
+				throw new IllegalStateException("Could not read the SPARQL queries for the triple filter: " +
+					exception.getMessage(), exception);
+			}
+			tripleFilterCreated = true;
+			System.out.println("Loading " + (tripleFilter == null ? "all triples" : "triples with " + tripleFilter));
+		}
+		return tripleFilter;
+	}
+
+	// by default one, reading the files one after another
+	private static int getLoaderThreads() {
+		String threads = System.getProperty("OPSWPRDF_THREADS");
+		if (threads == null || threads.trim().isEmpty() || threads.startsWith("${")) return 1;
+		return Integer.parseInt(threads.trim());
+	}
+
+	// the endpoint if one is given, or the local WPRDF files, which are only loaded when
+	// a query is not in the disk cache; SPARQLEP=local serves the files with a LocalEndpoint
+	public static SPARQLHelper createHelper() throws Exception {
+		if (System.getProperty("SPARQLEP").contains("http:")) {
+			return new SPARQLHelper(System.getProperty("SPARQLEP"));
+		}
+		if ("local".equals(System.getProperty("SPARQLEP"))) {
+			return new SPARQLHelper(startLocalEndpoint().getURL());
+		}
+		QueryResultDiskCache diskCache = SPARQLHelper.getDiskCache();
+		if (diskCache == null) return new SPARQLHelper(loadData());
+
+		String fingerprint = getDatasetFingerprint();
+		String cachedParseErrors = diskCache.getProperty(fingerprint, "parseErrors");
+		if (cachedParseErrors == null) {
+			Model data = loadData();
+			diskCache.setProperty(fingerprint, "parseErrors", parseErrors);
+			return new SPARQLHelper(data, fingerprint);
+		}
+		parseErrors = cachedParseErrors;
+		return new SPARQLHelper(() -> loadData(), fingerprint);
+	}
+
+	// null unless the files were loaded into a TDB2 store or with OPSWPRDF_GRAPHS set
+	public static FileGraphStore getFileGraphStore() throws InterruptedException {
+		loadData();
+		return fileGraphStore;
+	}
+
+	// started the first time, runs until the JVM exits
+	public static synchronized LocalEndpoint startLocalEndpoint() throws Exception {
+		if (localEndpoint == null) {
+			localEndpoint = LocalEndpoint.fromSystemProperties(loadData()).start();
+			System.out.println("Local SPARQL endpoint: " + localEndpoint.getURL());
+		}
+		return localEndpoint;
+	}
+
+	public static String getDatasetFingerprint() throws IOException {
+		String subsetPrefix = getSubsetPrefix();
+		return datasetFingerprint(subsetPrefix, findAllFiles(getFolder(), subsetPrefix));
+	}
+
+	private static String datasetFingerprint(String subsetPrefix, List<File> files) throws IOException {
+		TripleFilter filter = getTripleFilter();
+		return "files:" + subsetPrefix + ":" +
+			DatasetFingerprint.of(files, QueryResultDiskCache.hashContent()) +
+			(filter == null ? "" : ":filter:" + filter.getFingerprint());
+	}
+
+	private static String getFolder() {
 		String folder = "/tmp/doesntexist/";
 		if (System.getProperty("OPSWPRDF") != null) {
 			folder = System.getProperty("OPSWPRDF");
@@ -65,37 +333,15 @@ public class OPSWPRDFFiles {
 			folder = folder.replace("[", "(");
 			folder = folder.replace("]", ")");
 		}
-		System.out.println("OPSWPRDF folder: " + folder);
+		return folder;
+	}
 
+	private static String getSubsetPrefix() {
 		String subsetPrefix = "wp111";
 		if (System.getProperty("SUBSETPREFIX") != null) {
 			subsetPrefix = System.getProperty("SUBSETPREFIX");
 		}
-		System.out.println("WP subset: " + subsetPrefix);
-
-		List<File> files = findAllFiles(folder, subsetPrefix);
-		System.out.println("Testing these files: " + files);
-		StringBuffer parseFailReport = new StringBuffer();
-		loadedData = ModelFactory.createDefaultModel();
-		for (File file : files) {
-			try {
-				loadedData.read(new FileInputStream(file), "", "TURTLE");
-			} catch (FileNotFoundException exception) {
-				parseFailReport.append(file.getName())
-			    .append(": not found\n");
-			} catch (TurtleParseException exception) {
-				parseFailReport.append(file.getName())
-				    .append(": ").append(exception.getMessage())
-				    .append('\n');
-			} catch (RiotException exception) {
-				parseFailReport.append(file.getName())
-			        .append(": ").append(exception.getMessage())
-			        .append('\n');
-			}
-		}
-		locked = false;
-		parseErrors = parseFailReport.toString();
-		return loadedData;
+		return subsetPrefix;
 	}
 
 	private static List<File> findAllFiles(String folder, String subsetPrefix) {
@@ -124,8 +370,6 @@ public class OPSWPRDFFiles {
 		add("WP2582"); // the metabolite tests
 	}};
 
-	public static final long SLEEP_TIME = 300; // in milliseconds
-
 	private static boolean testOrTutorial(String filename) {
 		for (String pathway : pathwaysToIgnore) {
 			if (filename.contains(pathway + "_")) return true;
@@ -0,0 +1,117 @@
+/* Copyright (C) 2026  Egon Willighagen <egon.willighagen@gmail.com>
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   - Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package nl.unimaas.bigcat.wikipathways.curator;
+
+import java.util.List;
+
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.query.SortCondition;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class QueryPagerTests {
+
+	private static final String QUERY =
+		"SELECT ?item ?value WHERE { ?item <urn:value> ?value } ORDER BY ?value";
+
+	private static Query page(String queryString, int page) {
+		QueryPager pager = QueryPager.create(queryString, 10);
+		Assertions.assertNotNull(pager);
+		return QueryFactory.create(pager.getPage(page));
+	}
+
+	private static String orderBy(Query query) {
+		StringBuilder order = new StringBuilder();
+		List<SortCondition> conditions = query.getOrderBy();
+		for (SortCondition condition : conditions) {
+			if (order.length() > 0) order.append(' ');
+			if (condition.getDirection() == Query.ORDER_DESCENDING) order.append('-');
+			order.append(condition.getExpression().getVarName());
+		}
+		return order.toString();
+	}
+
+	@Test
+	public void pages() {
+		Query first = page(QUERY, 0);
+		Assertions.assertEquals(10, first.getLimit());
+		Assertions.assertEquals(0, first.getOffset());
+		Query third = page(QUERY, 2);
+		Assertions.assertEquals(10, third.getLimit());
+		Assertions.assertEquals(20, third.getOffset());
+		Assertions.assertEquals(first.getQueryPattern(), third.getQueryPattern());
+	}
+
+	@Test
+	public void ordersByProjectedVariables() {
+		Assertions.assertEquals("value item", orderBy(page(QUERY, 0)));
+		Assertions.assertEquals("-value item",
+			orderBy(page("SELECT ?item ?value WHERE { ?item <urn:value> ?value } ORDER BY DESC(?value)", 0)));
+		Assertions.assertEquals("item value",
+			orderBy(page("SELECT * WHERE { ?item <urn:value> ?value }", 0)));
+	}
+
+	@Test
+	public void refusesQueries() {
+		Assertions.assertNull(QueryPager.create(QUERY, 0));
+		Assertions.assertNull(QueryPager.create(QUERY + " LIMIT 5", 10));
+		Assertions.assertNull(QueryPager.create(QUERY + " OFFSET 5", 10));
+		Assertions.assertNull(QueryPager.create(
+			"SELECT (COUNT(?item) AS ?count) WHERE { ?item <urn:value> ?value }", 10));
+		Assertions.assertNull(QueryPager.create(
+			"SELECT ?value WHERE { ?item <urn:value> ?value } GROUP BY ?value", 10));
+		Assertions.assertNull(QueryPager.create("ASK { ?item <urn:value> ?value }", 10));
+		Assertions.assertNull(QueryPager.create("CONSTRUCT { ?item ?p ?o } WHERE { ?item ?p ?o }", 10));
+		Assertions.assertNull(QueryPager.create("SELECT * WHERE { ?item bif:contains ?value }", 10));
+	}
+
+	@Test
+	public void cutOffPagesFail() throws Exception {
+		Model model = ModelFactory.createDefaultModel();
+		Property value = model.createProperty("urn:value");
+		for (int i=1; i<=25; i++) {
+			model.addLiteral(model.createResource("urn:item" + i), value,
+				model.createTypedLiteral("" + i, XSDDatatype.XSDinteger));
+		}
+		try (LocalEndpoint endpoint = new LocalEndpoint(model).start();
+		     SPARQLHelper helper = new SPARQLHelper(endpoint.getURL(), 1)) {
+			SPARQLHelper.getCache().invalidate(helper.getDatasetFingerprint());
+			endpoint.setMaxRows(8);
+			helper.setPageSize(10);
+			Exception exception = Assertions.assertThrows(Exception.class, () -> helper.sparql(QUERY));
+			Assertions.assertTrue(exception.getMessage().startsWith("Incomplete SPARQL result"), exception.getMessage());
+			// results up to the row limit are not affected
+			Assertions.assertEquals(5, helper.sparql(QUERY.replace("?value }", "?value FILTER (?value <= 5) }")).getRowCount());
+		}
+	}
+
+}
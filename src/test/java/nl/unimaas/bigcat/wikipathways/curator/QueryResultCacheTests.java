@@ -0,0 +1,71 @@
+/* Copyright (C) 2026  Egon Willighagen <egon.willighagen@gmail.com>
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   - Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package nl.unimaas.bigcat.wikipathways.curator;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class QueryResultCacheTests {
+
+	private static final String QUERY = "SELECT ?pathway WHERE { ?pathway a <urn:Pathway> }";
+
+	private static StringMatrix createSpilledTable() {
+		StringMatrix table = new StringMatrix();
+		table.setSpillThreshold(10, 0);
+		table.setColumnName(1, "pathway");
+		for (int row=1; row<=100; row++) table.set(row, 1, "http://identifiers.org/wikipathways/WP" + row);
+		return table;
+	}
+
+	@Test
+	public void cached() throws Exception {
+		QueryResultCache cache = new QueryResultCache(10, 1000);
+		StringMatrix table = cache.get("data", QUERY, QueryResultCacheTests::createSpilledTable);
+		Assertions.assertSame(table, cache.get("data", QUERY, () -> { throw new AssertionError("Not cached"); }));
+		Assertions.assertSame(table, cache.getIfPresent("data", "SELECT ?pathway\nWHERE { ?pathway a <urn:Pathway> }"));
+		Assertions.assertNull(cache.getIfPresent("other data", QUERY));
+		table.release();
+	}
+
+	@Test
+	public void invalidatedResultsStayReadable() throws Exception {
+		QueryResultCache cache = new QueryResultCache(10, 1000);
+		StringMatrix table = cache.get("data", QUERY, QueryResultCacheTests::createSpilledTable);
+		Assertions.assertTrue(table.isSpilled());
+		cache.invalidate("data");
+		Assertions.assertNull(cache.getIfPresent("data", QUERY));
+		// a check may still be reading the result it got before the data changed
+		Assertions.assertEquals("http://identifiers.org/wikipathways/WP100", table.get(100, 1));
+
+		table = cache.get("data", QUERY, QueryResultCacheTests::createSpilledTable);
+		cache.clear();
+		Assertions.assertEquals(0, cache.size());
+		Assertions.assertEquals("http://identifiers.org/wikipathways/WP100", table.get(100, 1));
+		table.release();
+	}
+
+}
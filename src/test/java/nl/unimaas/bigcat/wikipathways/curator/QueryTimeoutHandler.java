@@ -0,0 +1,24 @@
+package nl.unimaas.bigcat.wikipathways.curator;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.TestExecutionExceptionHandler;
+
+import nl.unimaas.bigcat.wikipathways.curator.assertions.AssertNoTimeout;
+import nl.unimaas.bigcat.wikipathways.curator.assertions.Test;
+
+// reports queries that timed out as AssertNoTimeout, so they show up as slow rather than as errors
+public class QueryTimeoutHandler implements TestExecutionExceptionHandler {
+
+	@Override
+	public void handleTestExecutionException(ExtensionContext context, Throwable throwable) throws Throwable {
+		QueryTimeoutException timeout = QueryTimeoutException.find(throwable);
+		if (timeout == null || !(context.getRequiredTestInstance() instanceof JUnitTests)) throw throwable;
+
+		Test test = new Test(context.getRequiredTestClass().getSimpleName(), context.getRequiredTestMethod().getName());
+		JUnitTests tests = (JUnitTests)context.getRequiredTestInstance();
+		tests.performAssertions(Collections.singletonList(new AssertNoTimeout(test, timeout)));
+	}
+
+}
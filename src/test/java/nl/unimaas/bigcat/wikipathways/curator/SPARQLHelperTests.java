@@ -0,0 +1,132 @@
+/* Copyright (C) 2026  Egon Willighagen <egon.willighagen@gmail.com>
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   - Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package nl.unimaas.bigcat.wikipathways.curator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SPARQLHelperTests {
+
+	private static final String QUERY =
+		"SELECT ?item ?value WHERE { ?item <urn:value> ?value } ORDER BY ?value";
+
+	private static Model createModel(int items) {
+		Model model = ModelFactory.createDefaultModel();
+		Property value = model.createProperty("urn:value");
+		for (int i=1; i<=items; i++) {
+			model.addLiteral(model.createResource("urn:item" + i), value,
+				model.createTypedLiteral("" + i, XSDDatatype.XSDinteger));
+		}
+		return model;
+	}
+
+	private static SPARQLHelper createHelper(LocalEndpoint endpoint) {
+		SPARQLHelper helper = new SPARQLHelper(endpoint.getURL());
+		// a new endpoint may get the port of an earlier one, with results still cached
+		SPARQLHelper.getCache().invalidate(helper.getDatasetFingerprint());
+		return helper;
+	}
+
+	private static List<String> stream(SPARQLHelper helper, String query) throws Exception {
+		List<String> rows = new ArrayList<>();
+		helper.sparql(query, row -> {
+			Assertions.assertTrue(row.isNumeric("value"));
+			rows.add(row.getRowNumber() + ":" + row.getLong("value") + ":" + row.get("item"));
+		});
+		return rows;
+	}
+
+	private static void assertRows(int items, List<String> rows) {
+		Assertions.assertEquals(items, rows.size());
+		for (int i=1; i<=items; i++) Assertions.assertEquals(i + ":" + i + ":urn:item" + i, rows.get(i-1));
+	}
+
+	@Test
+	public void streamModel() throws Exception {
+		assertRows(5, stream(new SPARQLHelper(createModel(5)), QUERY));
+	}
+
+	@Test
+	public void streamCachedTable() throws Exception {
+		Model model = createModel(5);
+		SPARQLHelper helper = new SPARQLHelper(model);
+		Assertions.assertEquals(5, helper.sparql(QUERY).getRowCount());
+		// not invalidated, so the rows must come from the cached table
+		model.add(createModel(6));
+		assertRows(5, stream(helper, QUERY));
+	}
+
+	@Test
+	public void streamPagedEndpoint() throws Exception {
+		try (LocalEndpoint endpoint = new LocalEndpoint(createModel(25)).start();
+		     SPARQLHelper helper = createHelper(endpoint)) {
+			helper.setPageSize(10);
+			assertRows(25, stream(helper, QUERY));
+			Assertions.assertTrue(endpoint.getRequestCount() >= 3);
+		}
+	}
+
+	@Test
+	public void consumerExceptionIsThrown() throws Exception {
+		RowConsumer failing = row -> {
+			if (row.getRowNumber() == 13) throw new IllegalStateException("row 13");
+		};
+		IllegalStateException exception = Assertions.assertThrows(IllegalStateException.class,
+			() -> new SPARQLHelper(createModel(25)).sparql(QUERY, failing));
+		Assertions.assertEquals("row 13", exception.getMessage());
+		try (LocalEndpoint endpoint = new LocalEndpoint(createModel(25)).start();
+		     SPARQLHelper helper = createHelper(endpoint)) {
+			helper.setPageSize(10);
+			exception = Assertions.assertThrows(IllegalStateException.class, () -> helper.sparql(QUERY, failing));
+			Assertions.assertEquals("row 13", exception.getMessage());
+		}
+	}
+
+	@Test
+	public void size() throws Exception {
+		Assertions.assertEquals(5, new SPARQLHelper(createModel(5)).size());
+		String url;
+		try (LocalEndpoint endpoint = new LocalEndpoint(createModel(5)).start();
+		     SPARQLHelper helper = createHelper(endpoint)) {
+			// without a VoID description, the triples are counted
+			Assertions.assertEquals(5, helper.size());
+			url = endpoint.getURL();
+		}
+		try (SPARQLHelper helper = new SPARQLHelper(url)) {
+			SPARQLHelper.getCache().invalidate(helper.getDatasetFingerprint());
+			Assertions.assertThrows(IllegalStateException.class, () -> helper.size());
+		}
+	}
+
+}
@@ -0,0 +1,162 @@
+/* Copyright (C) 2026  Egon Willighagen <egon.willighagen@gmail.com>
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   - Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package nl.unimaas.bigcat.wikipathways.curator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.NodeFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import nl.unimaas.bigcat.wikipathways.curator.StringMatrixFormat.Compression;
+
+public class StringMatrixFormatTests {
+
+	private static StringMatrix createTable() {
+		StringMatrix table = new StringMatrix();
+		table.setColumnName(1, "pathway");
+		table.setColumnName(2, "species");
+		table.setColumnName(3, "label");
+		for (int row=1; row<=100; row++) {
+			table.set(row, 1, "http://identifiers.org/wikipathways/WP" + row);
+			table.set(row, 2, row % 3 == 0 ? "Mus musculus" : "Homo sapiens");
+			if (row % 7 != 0) table.set(row, 3, "β-alanine " + row);
+		}
+		table.set(5, 3, "");
+		return table;
+	}
+
+	private static void assertSameTable(StringMatrix expected, StringMatrix actual) {
+		Assertions.assertEquals(expected.getRowCount(), actual.getRowCount());
+		Assertions.assertEquals(expected.getColumnCount(), actual.getColumnCount());
+		Assertions.assertEquals(expected.hasColHeader(), actual.hasColHeader());
+		Assertions.assertEquals(expected.hasRowHeader(), actual.hasRowHeader());
+		for (int col=1; col<=expected.getColumnCount(); col++)
+			Assertions.assertEquals(expected.getColumnName(col), actual.getColumnName(col));
+		for (int row=1; row<=expected.getRowCount(); row++) {
+			Assertions.assertEquals(expected.getRowName(row), actual.getRowName(row));
+			for (int col=1; col<=expected.getColumnCount(); col++)
+				Assertions.assertEquals(expected.get(row, col), actual.get(row, col), "row " + row + ", column " + col);
+		}
+	}
+
+	private static StringMatrix roundTrip(StringMatrix table, Compression compression) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		StringMatrixFormat.write(table, out, compression);
+		return StringMatrixFormat.read(new ByteArrayInputStream(out.toByteArray()));
+	}
+
+	@Test
+	public void roundTrip() throws IOException {
+		StringMatrix table = createTable();
+		assertSameTable(table, roundTrip(table, Compression.NONE));
+		assertSameTable(table, roundTrip(table, Compression.DEFLATE));
+	}
+
+	@Test
+	public void roundTripRowNames() throws IOException {
+		StringMatrix table = createTable();
+		for (int row=1; row<=table.getRowCount(); row++) table.setRowName(row, "row" + row);
+		assertSameTable(table, roundTrip(table, Compression.DEFLATE));
+	}
+
+	@Test
+	public void roundTripEmpty() throws IOException {
+		StringMatrix table = new StringMatrix();
+		assertSameTable(table, roundTrip(table, Compression.NONE));
+		table.setColumnName(1, "count");
+		assertSameTable(table, roundTrip(table, Compression.DEFLATE));
+	}
+
+	@Test
+	public void roundTripMemoryMapped() throws IOException {
+		StringMatrix table = createTable();
+		for (Compression compression : Compression.values()) {
+			File file = File.createTempFile("table", ".smtx");
+			try {
+				try (OutputStream out = new FileOutputStream(file)) {
+					StringMatrixFormat.write(table, out, compression);
+				}
+				assertSameTable(table, StringMatrixFormat.read(file));
+				// blocks that cross a window, and blocks larger than a window
+				assertSameTable(table, StringMatrixFormat.read(file, StringMatrix::new, 64));
+				assertSameTable(table, StringMatrixFormat.read(file, StringMatrix::new, 1000));
+			} finally {
+				file.delete();
+			}
+		}
+	}
+
+	@Test
+	public void roundTripTypedLiterals() throws IOException {
+		StringMatrix table = new StringMatrix();
+		table.setColumnName(1, "count");
+		table.setColumnName(2, "date");
+		for (int row=1; row<=10; row++) {
+			table.setNode(row, 1, NodeFactory.createLiteral("" + (row * 10), XSDDatatype.XSDinteger));
+			table.setNode(row, 2, NodeFactory.createLiteral("2020-01-0" + (row % 9 + 1), XSDDatatype.XSDdate));
+		}
+		StringMatrix read = roundTrip(table, Compression.DEFLATE);
+		assertSameTable(table, read);
+		Assertions.assertEquals("10", read.get(1, 1));
+		Assertions.assertTrue(read.isNumeric(1, 1));
+	}
+
+	@Test
+	public void dictionaryIsSmaller() throws IOException {
+		StringMatrix table = new StringMatrix();
+		for (int row=1; row<=100; row++) table.set(row, 1, row % 3 == 0 ? "Mus musculus" : "Homo sapiens");
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		StringMatrixFormat.write(table, out, Compression.NONE);
+		// two strings and a byte per row, instead of 100 strings
+		Assertions.assertTrue(out.size() < 200, "Size: " + out.size());
+		assertSameTable(table, StringMatrixFormat.read(new ByteArrayInputStream(out.toByteArray())));
+	}
+
+	@Test
+	public void rejectsOtherFiles() {
+		byte[] bytes = "Not a table at all".getBytes();
+		Assertions.assertThrows(IOException.class,
+			() -> StringMatrixFormat.read(new ByteArrayInputStream(bytes)));
+	}
+
+	@Test
+	public void rejectsTruncatedFiles() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		StringMatrixFormat.write(createTable(), out, Compression.DEFLATE);
+		byte[] truncated = java.util.Arrays.copyOf(out.toByteArray(), out.size() / 2);
+		Assertions.assertThrows(IOException.class,
+			() -> StringMatrixFormat.read(new ByteArrayInputStream(truncated)));
+	}
+
+}
@@ -0,0 +1,302 @@
+/* Copyright (C) 2026  Egon Willighagen <egon.willighagen@gmail.com>
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   - Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package nl.unimaas.bigcat.wikipathways.curator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.NodeFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class StringMatrixTests {
+
+	private static StringMatrix createSpilledTable() {
+		StringMatrix table = new StringMatrix();
+		table.setSpillThreshold(10, 0);
+		table.setColumnName(1, "pathway");
+		table.setColumnName(2, "label");
+		for (int row=1; row<=100; row++) {
+			table.set(row, 1, "http://identifiers.org/wikipathways/WP" + row);
+			if (row % 7 != 0) table.set(row, 2, "β-alanine " + row);
+		}
+		return table;
+	}
+
+	@Test
+	public void spillAndReadBack() {
+		StringMatrix table = createSpilledTable();
+		try {
+			Assertions.assertTrue(table.isSpilled());
+			Assertions.assertEquals(100, table.getRowCount());
+			for (int row=1; row<=100; row++) {
+				Assertions.assertEquals("http://identifiers.org/wikipathways/WP" + row, table.get(row, "pathway"));
+				Assertions.assertEquals(row % 7 != 0 ? "β-alanine " + row : null, table.get(row, "label"));
+			}
+		} finally {
+			table.release();
+		}
+		Assertions.assertThrows(IllegalStateException.class, () -> table.get(1, 1));
+	}
+
+	@Test
+	public void spillKeepsEmptyAndNull() {
+		StringMatrix table = new StringMatrix();
+		table.set(1, 1, "");
+		table.set(1, 2, null);
+		table.set(3, 1, "c");
+		table.setSpillThreshold(1, 0);
+		table.set(4, 2, "");
+		try {
+			Assertions.assertTrue(table.isSpilled());
+			Assertions.assertEquals("", table.get(1, 1));
+			Assertions.assertNull(table.get(1, 2));
+			// a row without any value reads as empty strings
+			Assertions.assertEquals("", table.get(2, 1));
+			Assertions.assertNull(table.get(3, 2));
+			Assertions.assertNull(table.get(4, 1));
+			Assertions.assertEquals("", table.get(4, 2));
+		} finally {
+			table.release();
+		}
+	}
+
+	@Test
+	public void spillTypedCells() {
+		StringMatrix table = new StringMatrix();
+		table.setNode(1, 1, NodeFactory.createLiteral("42", XSDDatatype.XSDinteger));
+		table.setNode(2, 1, NodeFactory.createLiteral("2021-03-10", XSDDatatype.XSDdate));
+		String date = table.get(2, 1);
+		table.setSpillThreshold(1, 0);
+		try {
+			Assertions.assertTrue(table.isSpilled());
+			Assertions.assertEquals("42", table.get(1, 1));
+			Assertions.assertTrue(table.isNumeric(1, 1));
+			Assertions.assertEquals(42, table.getLong(1, 1));
+			Assertions.assertEquals(date, table.get(2, 1));
+			Assertions.assertFalse(table.isNumeric(2, 1));
+		} finally {
+			table.release();
+		}
+	}
+
+	@Test
+	public void spillFailureIsThrown() throws IOException {
+		File notAFolder = File.createTempFile("matrix", ".txt");
+		String previous = System.getProperty("SPARQL_SPILL_DIR");
+		System.setProperty("SPARQL_SPILL_DIR", notAFolder.getPath());
+		try {
+			Assertions.assertThrows(UncheckedIOException.class, () -> createSpilledTable());
+		} finally {
+			if (previous == null) System.clearProperty("SPARQL_SPILL_DIR");
+			else System.setProperty("SPARQL_SPILL_DIR", previous);
+			notAFolder.delete();
+		}
+	}
+
+	private static StringMatrix table(String[] columns, String[][] rows) {
+		StringMatrix table = new StringMatrix();
+		for (int col=1; col<=columns.length; col++) table.setColumnName(col, columns[col-1]);
+		for (int row=1; row<=rows.length; row++) {
+			for (int col=1; col<=columns.length; col++) table.set(row, col, rows[row-1][col-1]);
+		}
+		return table;
+	}
+
+	@Test
+	public void indexBy() {
+		StringMatrix table = table(new String[] { "id", "label" }, new String[][] {
+			{ "b", "1" }, { "a", "2" }, { null, "3" }, { "b", "4" }
+		});
+		RowIndex index = table.indexBy("id");
+		Assertions.assertEquals(Arrays.asList("b", "a"), index.getKeys());
+		Assertions.assertArrayEquals(new int[] { 1, 4 }, index.getRows("b").toArray());
+		Assertions.assertEquals(4, index.getRows("b").get(1));
+		Assertions.assertEquals(2, index.getFirstRow("a"));
+		Assertions.assertEquals(1, index.getRowCount("a"));
+		Assertions.assertEquals(0, index.getRows("c").size());
+		Assertions.assertEquals(0, index.getFirstRow("c"));
+		Assertions.assertThrows(IndexOutOfBoundsException.class, () -> index.getRows("a").get(1));
+	}
+
+	@Test
+	public void groupBy() {
+		StringMatrix table = table(new String[] { "title", "species" }, new String[][] {
+			{ "A", "Homo sapiens" }, { "A", "Mus musculus" }, { "a", "Homo sapiens" }
+		});
+		RowIndex byTitle = table.groupBy(row -> table.get(row, "title").toLowerCase());
+		Assertions.assertEquals(1, byTitle.size());
+		Assertions.assertArrayEquals(new int[] { 1, 2, 3 }, byTitle.getRows("a").toArray());
+		RowIndex byBoth = table.groupBy("title", "species");
+		Assertions.assertEquals(3, byBoth.size());
+	}
+
+	@Test
+	public void hashJoin() {
+		StringMatrix pathways = table(new String[] { "pathway", "title" }, new String[][] {
+			{ "WP1", "one" }, { "WP2", "two" }, { null, "none" }, { "WP3", "three" }
+		});
+		StringMatrix nodes = table(new String[] { "node", "wp" }, new String[][] {
+			{ "n1", "WP2" }, { "n2", "WP1" }, { "n3", "WP2" }, { "n4", "WP9" }
+		});
+		StringMatrix joined = pathways.hashJoin("pathway", nodes, "wp");
+		Assertions.assertEquals(3, joined.getColumnCount());
+		Assertions.assertEquals("node", joined.getColumnName(3));
+		Assertions.assertEquals(3, joined.getRowCount());
+		Assertions.assertEquals("WP1", joined.get(1, "pathway"));
+		Assertions.assertEquals("n2", joined.get(1, "node"));
+		Assertions.assertEquals("n1", joined.get(2, "node"));
+		Assertions.assertEquals("n3", joined.get(3, "node"));
+		Assertions.assertEquals("two", joined.get(3, "title"));
+	}
+
+	@Test
+	public void typedCells() {
+		StringMatrix table = new StringMatrix();
+		table.setNode(1, 1, NodeFactory.createLiteral("42", XSDDatatype.XSDinteger));
+		table.setNode(2, 1, NodeFactory.createLiteral("5.0", XSDDatatype.XSDdecimal));
+		table.setNode(3, 1, NodeFactory.createLiteral("abc", XSDDatatype.XSDint));
+		table.setNode(4, 1, NodeFactory.createLiteral("2021-03-10", XSDDatatype.XSDdate));
+		Assertions.assertEquals("42", table.get(1, 1));
+		Assertions.assertEquals(42, table.getLong(1, 1));
+		// converted by value, like Jena does
+		Assertions.assertEquals("5", table.get(2, 1));
+		Assertions.assertTrue(table.isNumeric(2, 1));
+		Assertions.assertEquals(5, table.getLong(2, 1));
+		// an ill-formed literal is returned as its lexical form
+		Assertions.assertEquals("abc", table.get(3, 1));
+		Assertions.assertFalse(table.isNumeric(3, 1));
+		// the string is made once
+		String date = table.get(4, 1);
+		Assertions.assertSame(date, table.get(4, 1));
+		Assertions.assertFalse(table.isNumeric(4, 1));
+	}
+
+	@Test
+	public void columnsGrow() {
+		StringMatrix table = new StringMatrix(2);
+		for (int row=1; row<=1000; row++) table.set(row, 1, "WP" + row);
+		table.set(500, 3, "late column");
+		Assertions.assertEquals(1000, table.getRowCount());
+		Assertions.assertEquals(3, table.getColumnCount());
+		Assertions.assertEquals("WP1", table.get(1, 1));
+		Assertions.assertEquals("WP1000", table.get(1000, 1));
+		Assertions.assertEquals("late column", table.get(500, 3));
+		Assertions.assertNull(table.get(499, 3));
+		Assertions.assertNull(table.get(500, 2));
+	}
+
+	@Test
+	public void rowsWithoutValues() {
+		StringMatrix table = new StringMatrix();
+		table.set(1, 1, "a");
+		table.setSize(3, 2);
+		// like the old table, a row without any value has empty strings
+		Assertions.assertEquals("", table.get(3, 1));
+		Assertions.assertNull(table.get(1, 2));
+		Assertions.assertEquals(Arrays.asList("a", "", ""), table.getColumn(1));
+		Assertions.assertThrows(ArrayIndexOutOfBoundsException.class, () -> table.get(4, 1));
+	}
+
+	@Test
+	public void immutable() {
+		StringMatrix table = new StringMatrix();
+		table.set(1, 1, "a");
+		table.makeImmutable();
+		Assertions.assertThrows(UnsupportedOperationException.class, () -> table.set(1, 1, "b"));
+		Assertions.assertEquals("a", table.get(1, 1));
+	}
+
+	@Test
+	public void columnLookup() {
+		StringMatrix table = new StringMatrix();
+		table.setColumnName(1, "id");
+		table.setColumnName(2, "label");
+		table.setColumnName(3, "id");
+		Assertions.assertTrue(table.hasColumn("label"));
+		Assertions.assertFalse(table.hasColumn("page"));
+		// the first of two columns with the same name
+		Assertions.assertEquals(1, table.getColumnNumber("id"));
+		table.setColumnName(1, "identifier");
+		Assertions.assertEquals(1, table.getColumnNumber("identifier"));
+		Assertions.assertEquals(3, table.getColumnNumber("id"));
+		Assertions.assertThrows(IllegalAccessError.class, () -> table.getColumnNumber("page"));
+	}
+
+	@Test
+	public void columnRef() {
+		StringMatrix table = table(new String[] { "id", "count" }, new String[][] {
+			{ "a", "12" }, { "b", "x" }
+		});
+		StringMatrix.ColumnRef counts = table.getColumnRef("count");
+		Assertions.assertEquals(2, counts.getColumnNumber());
+		Assertions.assertEquals("12", counts.get(1));
+		Assertions.assertEquals("12", table.get(1, counts));
+		Assertions.assertTrue(counts.isNumeric(1));
+		Assertions.assertEquals(12, counts.getLong(1));
+		Assertions.assertFalse(counts.isNumeric(2));
+		StringMatrix other = table(new String[] { "count" }, new String[][] { { "1" } });
+		Assertions.assertThrows(IllegalArgumentException.class, () -> other.get(1, counts));
+	}
+
+	@Test
+	public void dictionary() {
+		StringDictionary dictionary = new StringDictionary();
+		StringMatrix table = new StringMatrix(16, dictionary);
+		for (int row=1; row<=3000; row++) {
+			table.set(row, 1, "http://identifiers.org/wikipathways/WP" + row);
+			table.set(row, 2, row % 3 == 0 ? "Mus musculus" : "Homo sapiens");
+			if (row % 7 != 0) table.set(row, 3, "");
+		}
+		Assertions.assertSame(dictionary, table.getDictionary());
+		for (int row=1; row<=3000; row++) {
+			Assertions.assertEquals("http://identifiers.org/wikipathways/WP" + row, table.get(row, 1));
+			Assertions.assertEquals(row % 3 == 0 ? "Mus musculus" : "Homo sapiens", table.get(row, 2));
+			Assertions.assertEquals(row % 7 != 0 ? "" : null, table.get(row, 3));
+		}
+		// the identifiers are mostly distinct, so are no longer encoded after the first rows
+		Assertions.assertTrue(dictionary.size() < 1100, "Dictionary size: " + dictionary.size());
+	}
+
+	@Test
+	public void sharedDictionary() {
+		StringDictionary dictionary = new StringDictionary();
+		StringMatrix first = new StringMatrix(16, dictionary);
+		StringMatrix second = new StringMatrix(16, dictionary);
+		first.set(1, 1, "Homo sapiens");
+		second.set(1, 1, "Mus musculus");
+		second.set(2, 1, "Homo sapiens");
+		Assertions.assertEquals(2, dictionary.size());
+		Assertions.assertEquals("Homo sapiens", first.get(1, 1));
+		Assertions.assertEquals("Mus musculus", second.get(1, 1));
+		Assertions.assertEquals("Homo sapiens", second.get(2, 1));
+	}
+
+}
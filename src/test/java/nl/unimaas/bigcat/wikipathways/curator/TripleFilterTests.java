@@ -0,0 +1,83 @@
+/* Copyright (C) 2026  Egon Willighagen <egon.willighagen@gmail.com>
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   - Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package nl.unimaas.bigcat.wikipathways.curator;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.vocabulary.RDF;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TripleFilterTests {
+
+	private static final Node NODE = NodeFactory.createURI("urn:node");
+
+	private static Triple triple(String predicate, String object) {
+		return Triple.create(NODE, NodeFactory.createURI(predicate), NodeFactory.createURI(object));
+	}
+
+	@Test
+	public void fromQueries() {
+		TripleFilter filter = TripleFilter.fromQueries(Collections.singletonList(
+			"SELECT * WHERE { ?s <urn:a> ?o ; <urn:b>/^<urn:c> ?x FILTER NOT EXISTS { ?s a <urn:Type> } }"
+		));
+		Assertions.assertTrue(filter.accept(triple("urn:a", "urn:o")));
+		Assertions.assertTrue(filter.accept(triple("urn:b", "urn:o")));
+		Assertions.assertTrue(filter.accept(triple("urn:c", "urn:o")));
+		Assertions.assertFalse(filter.accept(triple("urn:d", "urn:o")));
+		Assertions.assertTrue(filter.accept(triple(RDF.type.getURI(), "urn:Type")));
+		Assertions.assertFalse(filter.accept(triple(RDF.type.getURI(), "urn:OtherType")));
+	}
+
+	@Test
+	public void variableTypeKeepsAllTypes() {
+		TripleFilter filter = TripleFilter.fromQueries(Arrays.asList(
+			"SELECT * WHERE { ?s a <urn:Type> }", "SELECT * WHERE { ?s a ?type }"
+		));
+		Assertions.assertTrue(filter.accept(triple(RDF.type.getURI(), "urn:OtherType")));
+	}
+
+	@Test
+	public void variablePredicateKeepsAll() {
+		Assertions.assertNull(TripleFilter.fromQueries(Arrays.asList(
+			"SELECT * WHERE { ?s <urn:a> ?o }", "SELECT * WHERE { ?s ?p ?o }"
+		)));
+	}
+
+	@Test
+	public void fromQueryResources() throws Exception {
+		TripleFilter filter = TripleFilter.fromQueryResources();
+		Assertions.assertNotNull(filter);
+		Assertions.assertTrue(filter.accept(triple("http://xmlns.com/foaf/0.1/page", "urn:page")));
+		Assertions.assertFalse(filter.accept(triple("http://vocabularies.wikipathways.org/gpml#centerX", "urn:x")));
+	}
+
+}
@@ -0,0 +1,228 @@
+/* Copyright (C) 2026  Egon Willighagen <egon.willighagen@gmail.com>
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright
+ *     notice, this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright
+ *     notice, this list of conditions and the following disclaimer in the
+ *     documentation and/or other materials provided with the distribution.
+ *   - Neither the name of the <organization> nor the
+ *     names of its contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL <COPYRIGHT HOLDER> BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package nl.unimaas.bigcat.wikipathways.curator;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import nl.unimaas.bigcat.wikipathways.curator.assertions.AssertEquals;
+import nl.unimaas.bigcat.wikipathways.curator.assertions.AssertTrue;
+import nl.unimaas.bigcat.wikipathways.curator.assertions.IAssertion;
+
+public class ValidationReportTests {
+
+	private static final nl.unimaas.bigcat.wikipathways.curator.assertions.Test TEST =
+		new nl.unimaas.bigcat.wikipathways.curator.assertions.Test("GeneralTests", "nullDataSources");
+
+	private static ValidationReport report(int count, TableDetails details, boolean recent) {
+		List<IAssertion> assertions = Arrays.asList(
+			new AssertEquals(TEST, 0, count, "Data nodes with a 'null' data source: " + count, details),
+			new AssertTrue(TEST, recent, "The data release is recent")
+		);
+		return new ValidationReport(assertions);
+	}
+
+	private static ValidationReport report(int count, String details) {
+		return new ValidationReport(Collections.singletonList(
+			new AssertEquals(TEST, 0, count, "Data nodes with a 'null' data source: " + count, details)
+		));
+	}
+
+	private static StringMatrix table(String... rows) {
+		StringMatrix table = new StringMatrix();
+		table.setColumnName(1, "homepage");
+		table.setColumnName(2, "label");
+		for (int row=1; row<=rows.length; row++) {
+			table.set(row, 1, rows[row-1].split(" ")[0]);
+			table.set(row, 2, rows[row-1].split(" ")[1]);
+		}
+		return table;
+	}
+
+	private static TableDetails details(String... rows) {
+		return table(rows).renderer(RenderOptions.DETAILS);
+	}
+
+	@Test
+	public void mergeReplacesChangedPathways() {
+		ValidationReport full = report(3, details("WP120_r1 a", "WP3_r1 b", "WP5_r1 c"), true);
+		// WP5 was fixed and WP12 was broken
+		ValidationReport before = report(1, details("WP5_r1 c"), true);
+		ValidationReport after = report(1, details("WP12_r2 d"), false);
+		ValidationReport merged = full.merge(before, after);
+
+		IAssertion count = merged.getAssertions().get(0);
+		Assertions.assertEquals(3, count.getValue());
+		Assertions.assertEquals(details("WP120_r1 a", "WP3_r1 b", "WP12_r2 d").get(), count.getDetails());
+		// not a count of problems, so kept from the full run
+		Assertions.assertEquals(true, merged.getAssertions().get(1).getValue());
+	}
+
+	@Test
+	public void mergeCountsProblemsNotRows() {
+		ValidationReport full = report(2, details("WP3_r1 a", "WP5_r1 first\nsecond"), true);
+		ValidationReport before = report(1, details("WP5_r1 first\nsecond"), true);
+		ValidationReport after = report(2, details("WP5_r2 b", "WP5_r2 c"), true);
+		IAssertion count = full.merge(before, after).getAssertions().get(0);
+		Assertions.assertEquals(3, count.getValue());
+		Assertions.assertEquals(details("WP3_r1 a", "WP5_r2 b", "WP5_r2 c").get(), count.getDetails());
+	}
+
+	@Test
+	public void mergeTruncatedDetails() {
+		// the first two rows are shown, and WP5 has two more problems that are not shown
+		String[] rows = new String[1500];
+		rows[0] = "WP1_r1 a";
+		rows[1] = "WP5_r1 b";
+		for (int i=2; i<rows.length; i++) rows[i] = (i < 4 ? "WP5_r1 b" : "WP" + (i + 10) + "_r1 a");
+		RenderOptions options = RenderOptions.DETAILS.withMaxRows(2);
+		ValidationReport full = report(1500, table(rows).renderer(options), true);
+		ValidationReport before = report(3, details("WP5_r1 b", "WP5_r1 b", "WP5_r1 b"), true);
+		ValidationReport after = report(1, details("WP5_r2 c"), true);
+		IAssertion count = full.merge(before, after).getAssertions().get(0);
+		Assertions.assertEquals(1498, count.getValue());
+		Assertions.assertEquals(
+			"[[\"homepage\",\"label\"],\n[\"WP1_r1\",\"a\"],\n[\"WP5_r2\",\"c\"],\n... +1496 more rows\n]\n",
+			count.getDetails());
+	}
+
+	@Test
+	public void mergeIntoPassingReport() {
+		ValidationReport full = report(0, details(), true);
+		ValidationReport before = report(0, details(), true);
+		ValidationReport after = report(1, details("WP12_r2 a"), true);
+		ValidationReport merged = full.merge(before, after);
+		Assertions.assertEquals(1, merged.getAssertions().get(0).getValue());
+		Assertions.assertEquals(after.getAssertions().get(0).getDetails(), merged.getAssertions().get(0).getDetails());
+	}
+
+	@Test
+	public void mergeFixedPathway() {
+		ValidationReport full = report(2, "WP3 'title'\nWP5 'title'\n");
+		ValidationReport before = report(1, "WP5 'title'\n");
+		ValidationReport after = report(0, "");
+		ValidationReport merged = full.merge(before, after);
+		Assertions.assertEquals(1, merged.getAssertions().get(0).getValue());
+		Assertions.assertEquals("WP3 'title'\n", merged.getAssertions().get(0).getDetails());
+	}
+
+	@Test
+	public void detailsRenderedOnce() {
+		AtomicInteger renders = new AtomicInteger();
+		ValidationReport full = report(1, details("WP3_r1 a"), true);
+		ValidationReport before = report(1, details("WP3_r1 a"), true);
+		ValidationReport after = new ValidationReport(Arrays.asList(
+			new AssertEquals(TEST, 0, 1, "Data nodes with a 'null' data source: 1", () -> {
+				renders.incrementAndGet();
+				return "WP3_r2 b\n";
+			}),
+			new AssertTrue(TEST, true, "The data release is recent", () -> {
+				renders.incrementAndGet();
+				return "";
+			})
+		));
+		for (IAssertion assertion : after.getAssertions()) {
+			assertion.getDetails();
+			assertion.getDetails();
+		}
+		full.merge(before, after);
+		Assertions.assertEquals(2, renders.get());
+	}
+
+	private static final String NULL_DATA_SOURCES =
+		"SELECT ?homepage ?label WHERE {\n" +
+		"  ?node <urn:test:source> \"null\" ; <urn:test:label> ?label ; <urn:test:pathway> ?pathway .\n" +
+		"  ?pathway <urn:test:homepage> ?homepage .\n" +
+		"} ORDER BY ?homepage ?label";
+
+	private static final ValidationReport.Check CHECK = helper -> {
+		StringMatrix table = helper.sparql(NULL_DATA_SOURCES);
+		StringMatrix pathways = helper.sparql("SELECT ?pathway WHERE { ?pathway <urn:test:homepage> ?homepage }");
+		return Arrays.asList(
+			new AssertEquals(TEST, 0, table.getRowCount(), "Data nodes with a 'null' data source", table.renderer(RenderOptions.DETAILS)),
+			new AssertTrue(TEST, pathways.getRowCount() >= 3, "At least three pathways")
+		);
+	};
+
+	private static File pathway(Path folder, String id, String revision, String... nullNodes) throws Exception {
+		StringBuilder turtle = new StringBuilder();
+		turtle.append("<urn:test:").append(id).append("> <urn:test:homepage> \"")
+			.append(id).append('_').append(revision).append("\" .\n");
+		for (String label : nullNodes) {
+			turtle.append("<urn:test:").append(id).append('/').append(label).append("> <urn:test:source> \"null\" ; ")
+				.append("<urn:test:label> \"").append(label).append("\" ; <urn:test:pathway> <urn:test:").append(id).append("> .\n");
+		}
+		File file = folder.resolve(id + ".ttl").toFile();
+		Files.write(file.toPath(), turtle.toString().getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	@Test
+	public void revalidateReplacedFile() throws Exception {
+		Path folder = Files.createTempDirectory("report");
+		List<File> files = Arrays.asList(
+			pathway(folder, "WP1", "r1", "a", "b"),
+			pathway(folder, "WP2", "r1", "c"),
+			pathway(folder, "WP3", "r1")
+		);
+		FileGraphStore store = new FileGraphStore();
+		Assertions.assertEquals("", store.update(files, false));
+		List<ValidationReport.Check> checks = Collections.singletonList(CHECK);
+		ValidationReport full;
+		try (SPARQLHelper helper = new SPARQLHelper(store.getModel())) {
+			full = ValidationReport.run(helper, checks);
+		}
+		Assertions.assertEquals(3, full.getAssertions().get(0).getValue());
+
+		// WP2 fixed node c, and broke d and e
+		File changed = pathway(folder, "WP2", "r2", "d", "e");
+		ValidationReport revalidated = full.revalidate(store, Collections.singletonList(changed), false, checks);
+		ValidationReport rerun;
+		try (SPARQLHelper helper = new SPARQLHelper(store.getModel())) {
+			rerun = ValidationReport.run(helper, checks);
+		}
+		Assertions.assertEquals("", revalidated.getParseErrors());
+		Assertions.assertEquals(rerun.getAssertions().size(), revalidated.getAssertions().size());
+		for (int i=0; i<rerun.getAssertions().size(); i++) {
+			Assertions.assertEquals(rerun.getAssertions().get(i).getValue(), revalidated.getAssertions().get(i).getValue());
+			Assertions.assertEquals(rerun.getAssertions().get(i).getDetails(), revalidated.getAssertions().get(i).getDetails());
+		}
+		Assertions.assertEquals(4, revalidated.getAssertions().get(0).getValue());
+		for (File file : files) file.delete();
+		folder.toFile().delete();
+	}
+
+}